@@ -0,0 +1,117 @@
+package io.bacta.benchmarks;
+
+import akka.actor.ActorSystem;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import io.bacta.sim.AttackResolution;
+import io.bacta.sim.BattleEngine;
+import io.bacta.sim.BattleSettings;
+import org.openjdk.jmh.annotations.*;
+import scala.concurrent.Await;
+import scala.concurrent.duration.Duration;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End to end battle simulation throughput. One benchmark operation is a complete batch of {@link #battles} battles,
+ * from actor creation to the last result. The auxiliary counters turn that into battles, rounds and attacks per second.
+ * Only the rounds and attacks rates are comparable across {@link #attackResolution}s: the two give the same battles
+ * the same participants, but they resolve attacks in a different order, so the fights and hence the work in a batch
+ * differ.
+ * Run with {@code -prof gc} (the default through {@link BenchmarkRunner}) to get the allocation rate alongside. The
+ * battles run on dispatcher threads, so read the {@code gc.churn.*} rows rather than {@code gc.alloc.rate}, which only
+ * covers the benchmark thread itself.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 10)
+@Measurement(iterations = 10, time = 10)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class BattleSimulationBenchmark {
+    private static final Config config = ConfigFactory.parseString(
+            "akka.log-dead-letters = off\n" +
+            "akka.log-dead-letters-during-shutdown = off")
+            .withFallback(ConfigFactory.load());
+
+    @Param({"ACTOR", "DATA_ORIENTED"})
+    private BattleEngine engine;
+
+    /**
+     * Only makes a difference to the ACTOR engine. Compare by the {@code :attacks} and {@code :rounds} rows.
+     */
+    @Param({"ACTOR_PER_ATTACK", "POOLED"})
+    private AttackResolution attackResolution;
+
+    @Param({"100", "1000"})
+    private int battles;
+
+    @Param({"10"})
+    private int minParticipants;
+
+    @Param({"30"})
+    private int maxParticipants;
+
+    /**
+     * Battles in flight at once.
+     */
+    @Param({"64", "1000"})
+    private int concurrency;
+
+    /**
+     * Both engines and both kinds of attack resolution start the same battles: same participant counts, stats, names
+     * and weapons. How the fights go depends on the order attacks resolve in, which differs between them.
+     */
+    @Param({"42"})
+    private long seed;
+
+    private ActorSystem actorSystem;
+    private BattleSettings settings;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        settings = BattleSettings.builder()
+                .attackResolution(attackResolution)
+                .build();
+        actorSystem = ActorSystem.create("bacta-benchmark", config);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        Await.result(actorSystem.terminate(), Duration.create(1, TimeUnit.MINUTES));
+    }
+
+    @Benchmark
+    public BattleSimulationTotals simulateBattles(BattleCounters counters) throws Exception {
+        final CompletableFuture<BattleSimulationTotals> completion = new CompletableFuture<>();
+
+        actorSystem.actorOf(BattleSimulationDriver.props(engine, settings, battles, minParticipants, maxParticipants, concurrency, seed, completion));
+
+        final BattleSimulationTotals totals = completion.get(5, TimeUnit.MINUTES);
+
+        counters.battles += totals.getBattles();
+        counters.rounds += totals.getRounds();
+        counters.attacks += totals.getAttacks();
+
+        return totals;
+    }
+
+    /**
+     * JMH reports each public field as its own rate next to the primary result.
+     */
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class BattleCounters {
+        public long battles;
+        public long rounds;
+        public long attacks;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            battles = 0;
+            rounds = 0;
+            attacks = 0;
+        }
+    }
+}
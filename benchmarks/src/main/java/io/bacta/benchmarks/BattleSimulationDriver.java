@@ -0,0 +1,108 @@
+package io.bacta.benchmarks;
+
+import akka.actor.AbstractActor;
+import akka.actor.Props;
+import io.bacta.sim.BattleEngine;
+import io.bacta.sim.BattleSimulationActor;
+import io.bacta.sim.BattleSimulationResult;
+import io.bacta.sim.BattleSettings;
+import io.bacta.sim.RandomStreams;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Drives a fixed number of battles the same way {@link io.bacta.App} does, but completes a future with the totals
+ * instead of printing every result, so that a benchmark can wait on it.
+ */
+public class BattleSimulationDriver extends AbstractActor {
+    public static Props props(BattleEngine battleEngine,
+                              BattleSettings settings,
+                              int totalBattles,
+                              int minParticipants,
+                              int maxParticipants,
+                              int concurrency,
+                              long masterSeed,
+                              CompletableFuture<BattleSimulationTotals> completion) {
+        return Props.create(BattleSimulationDriver.class,
+                () -> new BattleSimulationDriver(battleEngine, settings, totalBattles, minParticipants, maxParticipants, concurrency, masterSeed, completion));
+    }
+
+    private final BattleEngine battleEngine;
+    private final BattleSettings settings;
+    private final int totalBattles;
+    private final int minParticipants;
+    private final int maxParticipants;
+    private final int concurrency;
+    private final long masterSeed;
+    private final CompletableFuture<BattleSimulationTotals> completion;
+    private final SplittableRandom rng;
+
+    private int startedBattles;
+    private int battles;
+    private long attacks;
+    private long rounds;
+
+    public BattleSimulationDriver(BattleEngine battleEngine,
+                                  BattleSettings settings,
+                                  int totalBattles,
+                                  int minParticipants,
+                                  int maxParticipants,
+                                  int concurrency,
+                                  long masterSeed,
+                                  CompletableFuture<BattleSimulationTotals> completion) {
+        this.battleEngine = battleEngine;
+        this.settings = settings;
+        this.totalBattles = totalBattles;
+        this.minParticipants = minParticipants;
+        this.maxParticipants = maxParticipants;
+        this.concurrency = concurrency;
+        this.masterSeed = masterSeed;
+        this.completion = completion;
+        this.rng = new SplittableRandom(masterSeed);
+    }
+
+    @Override
+    public void preStart() {
+        final int window = Math.min(Math.max(concurrency, 1), totalBattles);
+
+        for (int i = 0; i < window; ++i) {
+            startBattle();
+        }
+    }
+
+    private void startBattle() {
+        final int battleId = ++startedBattles;
+        final int totalParticipants = maxParticipants > minParticipants
+                ? rng.nextInt(maxParticipants - minParticipants) + minParticipants
+                : minParticipants;
+        final long seed = RandomStreams.battleSeed(masterSeed, battleId);
+
+        context().actorOf(battleEngine.props(battleId, totalParticipants, seed, settings))
+                .tell(new BattleSimulationActor.StartBattle(), self());
+    }
+
+    @Override
+    public Receive createReceive() {
+        return receiveBuilder()
+                .match(BattleSimulationResult.class, this::receiveBattleSimulationResult)
+                .build();
+    }
+
+    private void receiveBattleSimulationResult(BattleSimulationResult result) {
+        battles++;
+        attacks += result.getTotalAttacks();
+        rounds += result.getRounds();
+
+        context().stop(sender());
+
+        if (startedBattles < totalBattles) {
+            startBattle();
+        }
+
+        if (battles == totalBattles) {
+            completion.complete(new BattleSimulationTotals(battles, attacks, rounds));
+            context().stop(self());
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package io.bacta.benchmarks;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public class BattleSimulationTotals {
+    private final int battles;
+    private final long attacks;
+    private final long rounds;
+}
@@ -0,0 +1,75 @@
+package io.bacta.benchmarks;
+
+import io.bacta.name.NameGenerator;
+import io.bacta.name.SyllableNameGenerator;
+import io.bacta.name.UniqueNameSource;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Syllable name throughput on one thread. Consecutive counters are what {@link UniqueNameSource} hands out; scattered
+ * counters are spread uniformly over the whole counter range, so they are nearly all names with the most middles.
+ * The {@code Into} variants write into one reused array and show what making the name costs without the string.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class NameGeneratorBenchmark {
+    private static final int SCATTERED_COUNTERS = 4096;
+
+    private SyllableNameGenerator generator;
+    private UniqueNameSource source;
+    private char[] name;
+    private long[] scattered;
+    private long counter;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        generator = NameGenerator.syllables();
+        source = new UniqueNameSource(generator);
+        scattered = new long[SCATTERED_COUNTERS];
+        name = new char[generator.maxNameLength()];
+
+        final SplittableRandom rng = new SplittableRandom(42);
+
+        for (int i = 0; i < scattered.length; ++i) {
+            scattered[i] = rng.nextLong(generator.capacity());
+        }
+    }
+
+    @Benchmark
+    public String consecutive() {
+        return generator.name(counter++);
+    }
+
+    @Benchmark
+    public String scattered() {
+        return generator.name(scattered[next++ & (SCATTERED_COUNTERS - 1)]);
+    }
+
+    @Benchmark
+    public String uniqueSource() {
+        return source.next();
+    }
+
+    @Benchmark
+    public int consecutiveInto() {
+        return generator.name(counter++, name, 0);
+    }
+
+    @Benchmark
+    public int scatteredInto() {
+        return generator.name(scattered[next++ & (SCATTERED_COUNTERS - 1)], name, 0);
+    }
+
+    @Benchmark
+    public int uniqueSourceInto() {
+        return source.next(name, 0);
+    }
+}
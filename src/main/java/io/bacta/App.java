@@ -2,51 +2,72 @@ package io.bacta;
 
 import akka.actor.AbstractActor;
 import akka.actor.ActorRef;
-import akka.actor.ActorSystem;
 import akka.actor.Props;
-import akka.stream.ActorMaterializer;
-import akka.stream.Materializer;
-import akka.stream.javadsl.Source;
+import io.bacta.sim.BattleResultSink;
 import io.bacta.sim.BattleSimulationActor;
 import io.bacta.sim.BattleSimulationResult;
+import io.bacta.sim.BattleStatistics;
+import io.bacta.sim.RandomStreams;
 import io.bacta.sim.TipSimulationActor;
+import io.bacta.tip.TipLoadGenerator;
+import io.bacta.tip.TipLoadReport;
+import io.bacta.tip.TipLoadSettings;
+import io.bacta.tip.TipSettings;
 
-import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Random;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
 
 public class App extends AbstractActor {
-    private final static Random RNG = new Random();
-    private final static int minBattleParticipants = 10;
-    private final static int maxBattleParticipants = 30;
 
+    public static Props props(SimulationSettings settings, BattleResultSink... sinks) {
+        return props(settings, new CompletableFuture<>(), sinks);
+    }
 
-    public static Props props(int totalBattleSimulations, int totalTipSimulations) {
-        return Props.create(App.class, () -> new App(totalBattleSimulations, totalTipSimulations));
+    /**
+     * @param completion completed with the aggregate statistics once every battle result has been handed to the sinks
+     *                   and the sinks are closed.
+     */
+    public static Props props(SimulationSettings settings, CompletableFuture<BattleStatistics> completion, BattleResultSink... sinks) {
+        final List<BattleResultSink> sinkList = Arrays.asList(sinks);
+        return Props.create(App.class, () -> new App(settings, completion, sinkList));
     }
 
-    private final List<ActorRef> battleSimulations;
-    private final List<ActorRef> tipSimulations;
+    private final SimulationSettings settings;
+    private final CompletableFuture<BattleStatistics> completion;
+    private final List<BattleResultSink> sinks;
+    private final BattleStatistics statistics = new BattleStatistics();
 
-    private final int totalBattleSimulations;
-    private final int totalTipSimulations;
+    //Every battle derives its own random stream from the master seed and its id. The master stream itself only
+    //decides how many participants each battle gets.
+    private final SplittableRandom rng;
+    private int nextBattleId = 1;
 
     private long startTimestamp;
 
-    private final List<BattleSimulationResult> battleSimulationResults;
+    private int startedBattleSimulations;
+    private int totalBattleSimulationResults;
+    private boolean sinksClosed;
 
-    public App(int totalBattleSimulations, int totalTipSimulations) {
-        this.totalBattleSimulations = totalBattleSimulations;
-        this.totalTipSimulations = totalTipSimulations;
+    public App(SimulationSettings settings, CompletableFuture<BattleStatistics> completion, List<BattleResultSink> sinks) {
+        this.settings = settings;
+        this.completion = completion;
+        this.sinks = sinks;
+        this.rng = new SplittableRandom(settings.getMasterSeed());
+    }
 
-        this.battleSimulationResults = new ArrayList<>(totalBattleSimulations);
+    @Override
+    public void postStop() {
+        //Covers crashes, restarts and being stopped from outside too: the results that did come in still reach the
+        //sinks' files, and whoever waits on the simulation must never be left hanging.
+        try {
+            closeSinks();
+        } catch (RuntimeException ex) {
+            completion.completeExceptionally(ex);
+        }
 
-        this.battleSimulations = Stream.generate(this::createBattleSimulation).limit(totalBattleSimulations).collect(Collectors.toList());
-        this.tipSimulations = Stream.generate(this::createTipSimulation).limit(totalTipSimulations).collect(Collectors.toList());
+        completion.completeExceptionally(new IllegalStateException("The simulation stopped before all battles completed."));
     }
 
     @Override
@@ -59,33 +80,94 @@ public class App extends AbstractActor {
     }
 
     private void start(StartSimulation msg) {
-        System.out.printf("Simulating %d battles and %d tips...\n", totalBattleSimulations, totalTipSimulations);
-
-        final Materializer materializer = ActorMaterializer.create(context().system());
+        System.out.printf("Simulating %d battles (%d at a time) and %d tips with seed %d...\n",
+                settings.getTotalBattleSimulations(),
+                settings.getBattleConcurrency(),
+                settings.getTotalTipSimulations(),
+                settings.getMasterSeed());
 
         startTimestamp = System.currentTimeMillis();
 
-        Source.from(battleSimulations)
-                .runForeach(sim -> sim.tell(new BattleSimulationActor.StartBattle(), self()), materializer);
+        startTipSimulations();
+
+        final int window = Math.min(Math.max(settings.getBattleConcurrency(), 1), settings.getTotalBattleSimulations());
+
+        for (int i = 0; i < window; ++i) {
+            startBattleSimulation();
+        }
+
+        if (settings.getTotalBattleSimulations() <= 0) {
+            self().tell(new BattleSimulationsComplete(), self());
+        }
+    }
+
+    /**
+     * Battles are created lazily: the first window of them when the simulation starts, and after that one more each
+     * time a battle reports its result, until the total is reached.
+     */
+    private void startBattleSimulation() {
+        startedBattleSimulations++;
+        createBattleSimulation().tell(new BattleSimulationActor.StartBattle(), self());
     }
 
     private ActorRef createBattleSimulation() {
-        final int totalParticipants = RNG.nextInt(maxBattleParticipants - minBattleParticipants) + minBattleParticipants;
+        final int minBattleParticipants = settings.getMinBattleParticipants();
+        final int maxBattleParticipants = settings.getMaxBattleParticipants();
 
-        return context().actorOf(BattleSimulationActor.props(totalParticipants));
+        final int battleId = nextBattleId++;
+        final int totalParticipants = maxBattleParticipants > minBattleParticipants
+                ? rng.nextInt(maxBattleParticipants - minBattleParticipants) + minBattleParticipants
+                : minBattleParticipants;
+        final long seed = RandomStreams.battleSeed(settings.getMasterSeed(), battleId);
+
+        return context().actorOf(settings.getBattleEngine().props(battleId, totalParticipants, seed, settings.getBattleSettings()));
     }
 
-    private ActorRef createTipSimulation() {
-        return context().actorOf(TipSimulationActor.props());
+    /**
+     * Tips run next to the battles on the same dispatcher but don't hold up completion; their report is printed
+     * whenever they finish.
+     */
+    private void startTipSimulations() {
+        if (settings.getTotalTipSimulations() <= 0)
+            return;
+
+        final TipSettings tipSettings = TipSettings.DEFAULT;
+        final TipLoadSettings loadSettings = TipLoadSettings.builder()
+                .totalTips(settings.getTotalTipSimulations())
+                //Battle ids start at 1, so stream 0 is free for the tips.
+                .seed(RandomStreams.battleSeed(settings.getMasterSeed(), 0))
+                .build();
+
+        final CompletableFuture<TipLoadReport> tipCompletion = new CompletableFuture<>();
+        tipCompletion.thenAccept(report -> report.print(System.out));
+
+        final ActorRef ledger = context().actorOf(TipSimulationActor.props(tipSettings), "tips");
+        context().actorOf(TipLoadGenerator.props(ledger, tipSettings, loadSettings, tipCompletion), "tip-load")
+                .tell(new TipLoadGenerator.StartLoad(), self());
     }
 
     private void receiveBattleSimulationResult(BattleSimulationResult result) {
-        battleSimulationResults.add(result);
+        totalBattleSimulationResults++;
+        statistics.accept(result);
+
+        try {
+            for (final BattleResultSink sink : sinks) {
+                sink.accept(result);
+            }
+        } catch (RuntimeException ex) {
+            completion.completeExceptionally(ex);
+            context().stop(self());
+            return;
+        }
 
         //Stop the simulation actor.
         context().stop(sender());
 
-        if (battleSimulationResults.size() == this.totalBattleSimulations) {
+        if (startedBattleSimulations < settings.getTotalBattleSimulations()) {
+            startBattleSimulation();
+        }
+
+        if (totalBattleSimulationResults == settings.getTotalBattleSimulations()) {
             self().tell(new BattleSimulationsComplete(), self());
         }
     }
@@ -94,52 +176,59 @@ public class App extends AbstractActor {
         final long finishTimestamp = System.currentTimeMillis();
         final long deltaTimestamp = finishTimestamp - startTimestamp;
 
-        System.out.printf("Collected %d battle simulation results in %d milliseconds.\n",
-                battleSimulationResults.size(),
-                deltaTimestamp);
+        System.out.printf("Collected %d battle simulation results in %d milliseconds (%.0f rounds/s, %.0f attacks/s).\n",
+                totalBattleSimulationResults,
+                deltaTimestamp,
+                statistics.getTotalRounds() * 1000.0 / Math.max(deltaTimestamp, 1),
+                statistics.getTotalAttacks() * 1000.0 / Math.max(deltaTimestamp, 1));
+
+        statistics.print(System.out);
 
-        battleSimulationResults.stream()
-                .sorted(Comparator.comparingInt(BattleSimulationResult::getId))
-                .forEachOrdered(this::printBattleSimulationResult);
+        try {
+            closeSinks();
+            completion.complete(statistics);
+        } catch (RuntimeException ex) {
+            completion.completeExceptionally(ex);
+        }
     }
 
-    private void printBattleSimulationResult(BattleSimulationResult result) {
-        System.out.printf("%-6d: After %d rounds and %d total participants, the winners were: ",
-                result.getId(),
-                result.getRounds(),
-                result.getTotalParticipants());
-
-        final String winners;
-        if (result.getWinningParticipants().size() <= 0) {
-            winners = "There were no winners. Everyone was incapacitated.";
-        } else {
-            winners = String.join(", ", result.getWinningParticipants());
+    /**
+     * Closes every sink exactly once. A sink that fails to close doesn't keep the others from closing; the first
+     * failure is thrown once they all had their turn.
+     */
+    private void closeSinks() {
+        if (sinksClosed)
+            return;
+
+        sinksClosed = true;
+        RuntimeException failure = null;
+
+        for (final BattleResultSink sink : sinks) {
+            try {
+                sink.close();
+            } catch (RuntimeException ex) {
+                if (failure == null) {
+                    failure = ex;
+                } else {
+                    failure.addSuppressed(ex);
+                }
+            }
         }
 
-        System.out.println(winners);
+        if (failure != null)
+            throw failure;
     }
 
-    private static class StartSimulation {
+    public static class StartSimulation {
     }
 
     private static class BattleSimulationsComplete {
     }
 
+    /**
+     * Runs the default simulation. See {@link BatchRunner} for the options.
+     */
     public static void main(String[] args) {
-        final int totalBattleSimulations = 1000;
-        final int totalTipSimulations = 10;
-
-        final ActorSystem actorSystem = ActorSystem.create("bacta");
-        final ActorRef sim = actorSystem.actorOf(App.props(totalBattleSimulations, totalTipSimulations));
-
-        sim.tell(new StartSimulation(), ActorRef.noSender());
-
-        try {
-            System.in.read();
-        } catch (IOException ex) {
-            ex.printStackTrace();
-        } finally {
-            actorSystem.terminate();
-        }
+        BatchRunner.main(args);
     }
 }
@@ -0,0 +1,245 @@
+package io.bacta;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.actor.CoordinatedShutdown;
+import akka.actor.Inbox;
+import io.bacta.combat.AttackRegistryReloader;
+import io.bacta.combat.LiveAttackRegistry;
+import io.bacta.results.BattleResultLogWriter;
+import io.bacta.sim.AttackResolution;
+import io.bacta.sim.BattleEngine;
+import io.bacta.sim.BattleResultSink;
+import io.bacta.sim.BattleSettings;
+import io.bacta.sim.BattleStatistics;
+import io.bacta.sim.ParticipantNames;
+import scala.concurrent.duration.Duration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs one simulation from the command line and exits when it is done, so it can be used from batch jobs and
+ * benchmark scripts. The actor system is taken down through coordinated shutdown after the results are flushed, which
+ * happens on a timeout or failure as well.
+ * <p>
+ * Exit codes: 0 when every battle completed, 1 when the simulation failed or timed out, 2 for bad arguments.
+ */
+public final class BatchRunner {
+    public static final int EXIT_SUCCESS = 0;
+    public static final int EXIT_FAILURE = 1;
+    public static final int EXIT_USAGE = 2;
+
+    private static final String USAGE = String.join("\n",
+            "Usage: BatchRunner [options]",
+            "  --battles <n>            battles to simulate (1000)",
+            "  --min-participants <n>   fewest participants in a battle (10)",
+            "  --max-participants <n>   most participants in a battle, exclusive (30)",
+            "  --seed <n>               master seed (random)",
+            "  --concurrency <n>        battles in flight at once (8 per core)",
+            "  --engine <name>          ACTOR or DATA_ORIENTED (ACTOR)",
+            "  --max-rounds <n>         rounds before a battle is called off (1000)",
+            "  --names <source>         CORPUS or SYLLABLES participant names (CORPUS)",
+            "  --attacks <name>         ACTOR_PER_ATTACK or POOLED attack resolution (POOLED)",
+            "  --attack-resolvers <n>   pooled attack resolvers per battle (1)",
+            "  --attacks-in-flight <n>  attacks a battle has out at once (8)",
+            "  --attack-file <file>     attack definitions and weights (the bundled attacks.txt)",
+            "  --reload-attacks <secs>  check the --attack-file for changes this often and apply them (never)",
+            "  --tips <n>               tips to send alongside the battles (10)",
+            "  --output <file>          write results to a binary result log",
+            "  --print                  print every result as it arrives",
+            "  --timeout <seconds>      give up after this long (no limit)");
+
+    private BatchRunner() {
+    }
+
+    public static void main(String[] args) {
+        System.exit(run(args));
+    }
+
+    public static int run(String[] args) {
+        final SimulationSettings.SimulationSettingsBuilder settingsBuilder = SimulationSettings.builder()
+                .masterSeed(ThreadLocalRandom.current().nextLong());
+        final BattleSettings.BattleSettingsBuilder battleSettings = BattleSettings.builder();
+        Path output = null;
+        boolean print = false;
+        long timeoutSeconds = 0;
+        long reloadAttacksSeconds = 0;
+        boolean attackFile = false;
+
+        try {
+            for (int i = 0; i < args.length; ++i) {
+                switch (args[i]) {
+                    case "--battles":
+                        settingsBuilder.totalBattleSimulations(Integer.parseInt(value(args, ++i)));
+                        break;
+                    case "--min-participants":
+                        settingsBuilder.minBattleParticipants(Integer.parseInt(value(args, ++i)));
+                        break;
+                    case "--max-participants":
+                        settingsBuilder.maxBattleParticipants(Integer.parseInt(value(args, ++i)));
+                        break;
+                    case "--seed":
+                        settingsBuilder.masterSeed(Long.parseLong(value(args, ++i)));
+                        break;
+                    case "--concurrency":
+                        settingsBuilder.battleConcurrency(Integer.parseInt(value(args, ++i)));
+                        break;
+                    case "--engine":
+                        settingsBuilder.battleEngine(BattleEngine.valueOf(value(args, ++i)));
+                        break;
+                    case "--max-rounds":
+                        battleSettings.maxRounds(Integer.parseInt(value(args, ++i)));
+                        break;
+                    case "--names":
+                        battleSettings.participantNames(ParticipantNames.valueOf(value(args, ++i)));
+                        break;
+                    case "--attacks":
+                        battleSettings.attackResolution(AttackResolution.valueOf(value(args, ++i)));
+                        break;
+                    case "--attack-resolvers":
+                        battleSettings.attackResolvers(Integer.parseInt(value(args, ++i)));
+                        break;
+                    case "--attack-file":
+                        battleSettings.attacks(LiveAttackRegistry.load(Paths.get(value(args, ++i))));
+                        attackFile = true;
+                        break;
+                    case "--reload-attacks":
+                        reloadAttacksSeconds = Long.parseLong(value(args, ++i));
+                        break;
+                    case "--attacks-in-flight":
+                        battleSettings.attacksInFlight(Integer.parseInt(value(args, ++i)));
+                        break;
+                    case "--tips":
+                        settingsBuilder.totalTipSimulations(Integer.parseInt(value(args, ++i)));
+                        break;
+                    case "--output":
+                        output = Paths.get(value(args, ++i));
+                        break;
+                    case "--print":
+                        print = true;
+                        break;
+                    case "--timeout":
+                        timeoutSeconds = Long.parseLong(value(args, ++i));
+                        break;
+                    case "--help":
+                        System.out.println(USAGE);
+                        return EXIT_SUCCESS;
+                    default:
+                        throw new IllegalArgumentException(String.format("Unknown option %s.", args[i]));
+                }
+            }
+
+            if (reloadAttacksSeconds > 0 && !attackFile)
+                throw new IllegalArgumentException("--reload-attacks needs an --attack-file to reload.");
+        } catch (IllegalArgumentException ex) {
+            System.err.println(ex.getMessage());
+            System.err.println(USAGE);
+            return EXIT_USAGE;
+        } catch (IOException ex) {
+            System.err.printf("Could not read %s.\n", ex.getMessage());
+            return EXIT_USAGE;
+        }
+
+        settingsBuilder.battleSettings(battleSettings.build());
+
+        return run(settingsBuilder.build(), output, print, timeoutSeconds, reloadAttacksSeconds);
+    }
+
+    /**
+     * @param reloadAttacksSeconds how often to check the attack file for changes while the simulation runs, or 0 to
+     *                             never check. Only applies when the attacks were loaded from a file.
+     */
+    public static int run(SimulationSettings settings, Path output, boolean print, long timeoutSeconds, long reloadAttacksSeconds) {
+        final ActorSystem actorSystem = ActorSystem.create("bacta");
+        int exitCode = EXIT_FAILURE;
+        ActorRef sim = null;
+
+        try {
+            final LiveAttackRegistry attacks = settings.getBattleSettings().getAttacks();
+
+            if (reloadAttacksSeconds > 0 && attacks.getPath() != null) {
+                actorSystem.actorOf(AttackRegistryReloader.props(
+                        attacks,
+                        Duration.create(reloadAttacksSeconds, TimeUnit.SECONDS)),
+                        "attack-reloader");
+            }
+
+            final List<BattleResultSink> sinks = new ArrayList<>();
+
+            if (output != null) {
+                sinks.add(new BattleResultLogWriter(output));
+                System.out.printf("Writing battle results to %s.\n", output.toAbsolutePath());
+            }
+
+            if (print) {
+                sinks.add(new ConsoleResultPrinter());
+            }
+
+            final CompletableFuture<BattleStatistics> completion = new CompletableFuture<>();
+            sim = actorSystem.actorOf(
+                    App.props(settings, completion, sinks.toArray(new BattleResultSink[0])),
+                    "simulation");
+
+            sim.tell(new App.StartSimulation(), ActorRef.noSender());
+
+            final BattleStatistics statistics = timeoutSeconds > 0
+                    ? completion.get(timeoutSeconds, TimeUnit.SECONDS)
+                    : completion.get();
+
+            if (statistics.getBattles() == settings.getTotalBattleSimulations()) {
+                exitCode = EXIT_SUCCESS;
+            } else {
+                System.err.printf("Only %d of %d battles completed.\n",
+                        statistics.getBattles(),
+                        settings.getTotalBattleSimulations());
+            }
+        } catch (TimeoutException ex) {
+            System.err.printf("The simulation did not finish within %d seconds.\n", timeoutSeconds);
+        } catch (Exception ex) {
+            System.err.println("The simulation failed.");
+            ex.printStackTrace();
+        } finally {
+            if (sim != null) {
+                stop(actorSystem, sim);
+            }
+
+            CoordinatedShutdown.get(actorSystem)
+                    .runAll(CoordinatedShutdown.unknownReason())
+                    .toCompletableFuture()
+                    .join();
+        }
+
+        return exitCode;
+    }
+
+    /**
+     * Stops the simulation and waits until it has closed its sinks, so a result log is flushed and closed even when the
+     * simulation timed out or failed. Does nothing if the simulation already stopped.
+     */
+    private static void stop(ActorSystem actorSystem, ActorRef sim) {
+        final Inbox inbox = Inbox.create(actorSystem);
+        inbox.watch(sim);
+        actorSystem.stop(sim);
+
+        try {
+            inbox.receive(Duration.create(30, TimeUnit.SECONDS));
+        } catch (TimeoutException ex) {
+            System.err.println("The simulation did not stop within 30 seconds; results may not have been flushed.");
+        }
+    }
+
+    private static String value(String[] args, int index) {
+        if (index >= args.length)
+            throw new IllegalArgumentException(String.format("%s needs a value.", args[index - 1]));
+
+        return args[index];
+    }
+}
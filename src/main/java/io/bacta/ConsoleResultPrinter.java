@@ -0,0 +1,40 @@
+package io.bacta;
+
+import io.bacta.sim.BattleResultSink;
+import io.bacta.sim.BattleSimulationResult;
+
+/**
+ * Prints every battle result as it comes in, so nothing is held on to. Results arrive in completion order, not id
+ * order.
+ */
+public class ConsoleResultPrinter implements BattleResultSink {
+
+    @Override
+    public void accept(BattleSimulationResult result) {
+        printBattleSimulationResult(result);
+    }
+
+    private void printBattleSimulationResult(BattleSimulationResult result) {
+        System.out.printf("%-6d: After %d rounds and %d total participants, ",
+                result.getId(),
+                result.getRounds(),
+                result.getTotalParticipants());
+
+        final String participants = String.join(", ", result.getWinningParticipants());
+
+        switch (result.getOutcome()) {
+            case STALEMATE:
+                System.out.println("the battle ended in a stalemate between: " + participants);
+                break;
+            case ROUND_LIMIT:
+                System.out.println("the battle was called off with these still standing: " + participants);
+                break;
+            default:
+                if (result.getWinningParticipants().size() <= 0) {
+                    System.out.println("the winners were: There were no winners. Everyone was incapacitated.");
+                } else {
+                    System.out.println("the winners were: " + participants);
+                }
+        }
+    }
+}
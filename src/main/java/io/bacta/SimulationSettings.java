@@ -0,0 +1,47 @@
+package io.bacta;
+
+import io.bacta.sim.BattleEngine;
+import io.bacta.sim.BattleSettings;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Everything that decides what a simulation run does. Two runs with equal settings on a
+ * {@link io.bacta.replay.DeterministicReplay deterministic} actor system produce the same battle results.
+ */
+@Getter
+@Builder(toBuilder = true)
+public class SimulationSettings {
+    @Builder.Default
+    private final int totalBattleSimulations = 1000;
+
+    /**
+     * Tips sent through the tip ledger alongside the battles.
+     */
+    @Builder.Default
+    private final int totalTipSimulations = 10;
+
+    @Builder.Default
+    private final int minBattleParticipants = 10;
+
+    @Builder.Default
+    private final int maxBattleParticipants = 30;
+
+    /**
+     * How many battles may be in flight at once. A new battle is only created when a running one reports its result,
+     * so memory scales with this rather than with {@link #totalBattleSimulations}.
+     */
+    @Builder.Default
+    private final int battleConcurrency = Runtime.getRuntime().availableProcessors() * 8;
+
+    @Builder.Default
+    private final BattleEngine battleEngine = BattleEngine.ACTOR;
+
+    @Builder.Default
+    private final BattleSettings battleSettings = BattleSettings.DEFAULT;
+
+    /**
+     * Every battle derives its own random stream from this and its id.
+     */
+    private final long masterSeed;
+}
@@ -0,0 +1,99 @@
+package io.bacta.combat;
+
+import java.util.SplittableRandom;
+
+/**
+ * Samples indexes in proportion to a set of weights in constant time, whatever the number of weights (Vose's alias
+ * method). Every slot is split into the chance of keeping its own index and an alias that takes the rest, so a sample
+ * is one random number: its integer part picks the slot and its fraction decides between the slot and its alias.
+ * Immutable once built.
+ */
+public final class AliasTable {
+    private final double[] probabilities;
+    private final int[] aliases;
+
+    private AliasTable(double[] probabilities, int[] aliases) {
+        this.probabilities = probabilities;
+        this.aliases = aliases;
+    }
+
+    /**
+     * @param weights non-negative, with at least one above zero. Indexes with a weight of zero are never sampled.
+     */
+    public static AliasTable of(double[] weights) {
+        final int n = weights.length;
+        double total = 0;
+
+        for (int i = 0; i < n; ++i) {
+            if (!(weights[i] >= 0) || Double.isInfinite(weights[i]))
+                throw new IllegalArgumentException(String.format("Weight %d is %s.", i, weights[i]));
+
+            total += weights[i];
+        }
+
+        if (total <= 0)
+            throw new IllegalArgumentException("At least one weight has to be positive.");
+
+        final double[] probabilities = new double[n];
+        final int[] aliases = new int[n];
+
+        //Scale the weights so that they average 1, then pair every slot under 1 with one over 1 that tops it up.
+        final double[] scaled = new double[n];
+        final int[] small = new int[n];
+        final int[] large = new int[n];
+        int smallCount = 0;
+        int largeCount = 0;
+
+        for (int i = 0; i < n; ++i) {
+            scaled[i] = weights[i] * n / total;
+
+            if (scaled[i] < 1) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+
+        while (smallCount > 0 && largeCount > 0) {
+            final int less = small[--smallCount];
+            final int more = large[--largeCount];
+
+            probabilities[less] = scaled[less];
+            aliases[less] = more;
+
+            scaled[more] = (scaled[more] + scaled[less]) - 1;
+
+            if (scaled[more] < 1) {
+                small[smallCount++] = more;
+            } else {
+                large[largeCount++] = more;
+            }
+        }
+
+        //Whatever is left is 1 give or take rounding error.
+        while (largeCount > 0) {
+            final int slot = large[--largeCount];
+            probabilities[slot] = 1;
+            aliases[slot] = slot;
+        }
+
+        while (smallCount > 0) {
+            final int slot = small[--smallCount];
+            probabilities[slot] = 1;
+            aliases[slot] = slot;
+        }
+
+        return new AliasTable(probabilities, aliases);
+    }
+
+    public int size() {
+        return probabilities.length;
+    }
+
+    public int sample(SplittableRandom rng) {
+        final double point = rng.nextDouble() * probabilities.length;
+        final int slot = Math.min((int) point, probabilities.length - 1);
+
+        return point - slot < probabilities[slot] ? slot : aliases[slot];
+    }
+}
@@ -3,8 +3,14 @@ package io.bacta.combat;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 
+/**
+ * The damage dealt is {@code damage} times {@code weaponDamage}. The defender scales it as it applies it, so nothing
+ * on the way allocates the scaled stats.
+ */
 @Getter
 @RequiredArgsConstructor
 public class ApplyAttack {
+    private final int attackId;
     private final CreatureStats damage;
+    private final int weaponDamage;
 }
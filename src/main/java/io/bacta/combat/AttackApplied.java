@@ -6,6 +6,16 @@ import lombok.RequiredArgsConstructor;
 @Getter
 @RequiredArgsConstructor
 public class AttackApplied {
-    private final CreatureStats ham;
+    private final int attackId;
+
+    /**
+     * The defender after the attack.
+     */
+    private final CombatantSnapshot defender;
+
+    /**
+     * The damage applied is this times {@link #weaponDamage}.
+     */
     private final CreatureStats appliedDamage;
+    private final int weaponDamage;
 }
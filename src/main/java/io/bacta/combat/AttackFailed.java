@@ -6,5 +6,6 @@ import lombok.RequiredArgsConstructor;
 @Getter
 @RequiredArgsConstructor
 public class AttackFailed {
+    private final int attackId;
     private final String reason;
-}
\ No newline at end of file
+}
@@ -0,0 +1,93 @@
+package io.bacta.combat;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * A weighted choice between attacks, for battles that should use some attacks more than their registry says. Choosing
+ * goes through an {@link AliasTable}. Immutable, so one instance can be shared by every battle.
+ */
+public class AttackMix {
+    private final AttackTypes.Attack[] attacks;
+    private final double[] weights;
+    private final AliasTable aliasTable;
+
+    private AttackMix(AttackTypes.Attack[] attacks, double[] weights) {
+        this.attacks = attacks;
+        this.weights = weights;
+        this.aliasTable = AliasTable.of(weights);
+    }
+
+    public static AttackMix of(Map<AttackTypes.Attack, Double> weights) {
+        final AttackTypes.Attack[] attacks = new AttackTypes.Attack[weights.size()];
+        final double[] weightArray = new double[weights.size()];
+        double total = 0;
+        int i = 0;
+
+        for (final Map.Entry<AttackTypes.Attack, Double> entry : weights.entrySet()) {
+            if (entry.getValue() < 0)
+                throw new IllegalArgumentException(String.format("Negative weight for %s.", entry.getKey().getName()));
+
+            total += entry.getValue();
+            attacks[i] = entry.getKey();
+            weightArray[i] = entry.getValue();
+            ++i;
+        }
+
+        if (total <= 0)
+            throw new IllegalArgumentException("An attack mix needs at least one positive weight.");
+
+        return new AttackMix(attacks, weightArray);
+    }
+
+    /**
+     * Parses {@code name:weight/name:weight...}, using the default attacks from {@link AttackTypes}.
+     */
+    public static AttackMix parse(String spec) {
+        return parse(spec, AttackTypes.DEFAULT);
+    }
+
+    /**
+     * Parses {@code name:weight/name:weight...}, using the attack names from {@code registry}.
+     */
+    public static AttackMix parse(String spec, AttackRegistry registry) {
+        final Map<AttackTypes.Attack, Double> weights = new LinkedHashMap<>();
+
+        for (final String entry : spec.split("/")) {
+            final String[] parts = entry.split(":");
+
+            if (parts.length != 2)
+                throw new IllegalArgumentException(String.format("Expected name:weight, got %s.", entry));
+
+            final AttackTypes.Attack attack = registry.forName(parts[0]);
+
+            if (attack == null)
+                throw new IllegalArgumentException(String.format("Unknown attack %s.", parts[0]));
+
+            weights.put(attack, Double.parseDouble(parts[1]));
+        }
+
+        return of(weights);
+    }
+
+    public AttackTypes.Attack choose(SplittableRandom rng) {
+        return attacks[aliasTable.sample(rng)];
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder();
+
+        for (int i = 0; i < attacks.length; ++i) {
+            if (i > 0) {
+                builder.append('/');
+            }
+
+            builder.append(attacks[i].getName()).append(':').append(BigDecimal.valueOf(weights[i]).stripTrailingZeros().toPlainString());
+        }
+
+        return builder.toString();
+    }
+}
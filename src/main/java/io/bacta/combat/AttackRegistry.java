@@ -0,0 +1,206 @@
+package io.bacta.combat;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.zip.CRC32;
+
+/**
+ * The attacks a battle can choose from, loaded from a data file, with how often each one is used. Choosing an attack
+ * goes through an {@link AliasTable}, so it costs the same with four attacks as with four hundred. Immutable, so one
+ * instance can be shared by every battle.
+ * <p>
+ * The file has one attack per line: name, weight, cost and damage, separated by whitespace. Cost and damage list
+ * {@code stat=value} pairs separated by commas, or {@code -} for none. Everything after a {@code #} is a comment.
+ * <pre>
+ * # name       weight  cost                 damage
+ * headshot1    1       action=100           health=20
+ * forcechoke1  0.5     health=20,action=300 health=200
+ * </pre>
+ */
+public class AttackRegistry {
+    private static final String[] STAT_NAMES = {
+            "health", "strength", "constitution",
+            "action", "quickness", "stamina",
+            "mind", "focus", "willpower"
+    };
+
+    private final AttackTypes.Attack[] attacks;
+    private final double[] weights;
+    private final Map<String, AttackTypes.Attack> attacksByName;
+    private final AliasTable aliasTable;
+
+    private AttackRegistry(AttackTypes.Attack[] attacks, double[] weights) {
+        this.attacks = attacks;
+        this.weights = weights;
+        this.attacksByName = new HashMap<>(attacks.length * 2);
+        this.aliasTable = AliasTable.of(weights);
+
+        for (final AttackTypes.Attack attack : attacks) {
+            if (attacksByName.put(attack.getName(), attack) != null)
+                throw new IllegalArgumentException(String.format("Attack %s is defined twice.", attack.getName()));
+        }
+    }
+
+    public static AttackRegistry load(Path path) throws IOException {
+        try (final Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            return load(reader, path.toString());
+        }
+    }
+
+    /**
+     * Loads a file from the classpath, relative to this class.
+     */
+    public static AttackRegistry loadResource(String name) throws IOException {
+        final InputStream in = AttackRegistry.class.getResourceAsStream(name);
+
+        if (in == null)
+            throw new IOException(String.format("There is no resource %s.", name));
+
+        try (final Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            return load(reader, name);
+        }
+    }
+
+    /**
+     * @param source names the data in error messages.
+     * @throws IllegalArgumentException if a line can't be parsed.
+     */
+    public static AttackRegistry load(Reader reader, String source) throws IOException {
+        final BufferedReader lines = new BufferedReader(reader);
+        final List<AttackTypes.Attack> attacks = new ArrayList<>();
+        final List<Double> weights = new ArrayList<>();
+
+        String line;
+        int lineNumber = 0;
+
+        while ((line = lines.readLine()) != null) {
+            lineNumber++;
+
+            final int comment = line.indexOf('#');
+            final String content = (comment >= 0 ? line.substring(0, comment) : line).trim();
+
+            if (content.isEmpty())
+                continue;
+
+            final String[] fields = content.split("\\s+");
+
+            if (fields.length != 4)
+                throw new IllegalArgumentException(String.format("%s line %d: expected name, weight, cost and damage.", source, lineNumber));
+
+            try {
+                attacks.add(new AttackTypes.Attack(fields[0], parseStats(fields[2]), parseStats(fields[3])));
+                weights.add(Double.parseDouble(fields[1]));
+            } catch (IllegalArgumentException ex) {
+                throw new IllegalArgumentException(String.format("%s line %d: %s", source, lineNumber, ex.getMessage()), ex);
+            }
+        }
+
+        if (attacks.isEmpty())
+            throw new IllegalArgumentException(String.format("%s defines no attacks.", source));
+
+        final double[] weightArray = new double[weights.size()];
+
+        for (int i = 0; i < weightArray.length; ++i) {
+            weightArray[i] = weights.get(i);
+        }
+
+        return new AttackRegistry(attacks.toArray(new AttackTypes.Attack[0]), weightArray);
+    }
+
+    private static CreatureStats parseStats(String spec) {
+        final MutableCreatureStats stats = new MutableCreatureStats();
+
+        if (spec.equals("-"))
+            return stats.snapshot();
+
+        for (final String pair : spec.split(",")) {
+            final int equals = pair.indexOf('=');
+            final int stat = equals > 0 ? statIndex(pair.substring(0, equals)) : -1;
+
+            if (stat < 0)
+                throw new IllegalArgumentException(String.format("Expected stat=value, got %s.", pair));
+
+            stats.set(stat, Integer.parseInt(pair.substring(equals + 1)));
+        }
+
+        return stats.snapshot();
+    }
+
+    private static int statIndex(String name) {
+        for (int i = 0; i < STAT_NAMES.length; ++i) {
+            if (STAT_NAMES[i].equals(name))
+                return i;
+        }
+
+        return -1;
+    }
+
+    public int size() {
+        return attacks.length;
+    }
+
+    public AttackTypes.Attack get(int index) {
+        return attacks[index];
+    }
+
+    public double getWeight(int index) {
+        return weights[index];
+    }
+
+    /**
+     * @return the attack with that name, or null.
+     */
+    public AttackTypes.Attack forName(String name) {
+        return attacksByName.get(name);
+    }
+
+    public List<AttackTypes.Attack> getAttacks() {
+        return Collections.unmodifiableList(Arrays.asList(attacks));
+    }
+
+    /**
+     * @return a checksum over every attack's name, weight, cost and damage, in order. Registries with the same digest
+     * choose and resolve attacks the same way.
+     */
+    public String digest() {
+        final CRC32 crc = new CRC32();
+        final ByteBuffer buffer = ByteBuffer.allocate(8 + 2 * 4 * MutableCreatureStats.SIZE);
+
+        for (int i = 0; i < attacks.length; ++i) {
+            crc.update(attacks[i].getName().getBytes(StandardCharsets.UTF_8));
+
+            buffer.clear();
+            buffer.putDouble(weights[i]);
+
+            for (int stat = 0; stat < MutableCreatureStats.SIZE; ++stat) {
+                buffer.putInt(attacks[i].cost(stat));
+                buffer.putInt(attacks[i].damage(stat));
+            }
+
+            crc.update(buffer.array(), 0, buffer.position());
+        }
+
+        return String.format("%08x", crc.getValue());
+    }
+
+    /**
+     * @return an attack, chosen in proportion to the weights.
+     */
+    public AttackTypes.Attack choose(SplittableRandom rng) {
+        return attacks[aliasTable.sample(rng)];
+    }
+}
@@ -0,0 +1,68 @@
+package io.bacta.combat;
+
+import akka.actor.AbstractActor;
+import akka.actor.Cancellable;
+import akka.actor.Props;
+import scala.concurrent.duration.FiniteDuration;
+
+import java.io.IOException;
+
+/**
+ * Checks the file behind a {@link LiveAttackRegistry} at a fixed interval and swaps in the new attacks when it has
+ * changed. A file that fails to load is reported and ignored, leaving the previous attacks in place.
+ */
+public class AttackRegistryReloader extends AbstractActor {
+    public static Props props(LiveAttackRegistry registry, FiniteDuration interval) {
+        return Props.create(AttackRegistryReloader.class, () -> new AttackRegistryReloader(registry, interval));
+    }
+
+    private final LiveAttackRegistry registry;
+    private final FiniteDuration interval;
+    private Cancellable timer;
+
+    public AttackRegistryReloader(LiveAttackRegistry registry, FiniteDuration interval) {
+        this.registry = registry;
+        this.interval = interval;
+    }
+
+    @Override
+    public void preStart() {
+        timer = context().system().scheduler().schedule(
+                interval,
+                interval,
+                self(),
+                new CheckForChanges(),
+                context().dispatcher(),
+                self());
+    }
+
+    @Override
+    public void postStop() {
+        if (timer != null) {
+            timer.cancel();
+        }
+    }
+
+    @Override
+    public Receive createReceive() {
+        return receiveBuilder()
+                .match(CheckForChanges.class, this::checkForChanges)
+                .build();
+    }
+
+    private void checkForChanges(CheckForChanges msg) {
+        try {
+            if (registry.reloadIfChanged()) {
+                System.out.printf("Reloaded %d attacks from %s.\n", registry.current().size(), registry.getPath());
+            }
+        } catch (IOException | IllegalArgumentException ex) {
+            System.err.printf("Keeping the current attacks, %s could not be loaded: %s\n", registry.getPath(), ex.getMessage());
+        }
+    }
+
+    /**
+     * Also accepted from outside, to check right away.
+     */
+    public static class CheckForChanges {
+    }
+}
@@ -0,0 +1,72 @@
+package io.bacta.combat;
+
+import akka.actor.AbstractActor;
+import akka.actor.Props;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A long-lived worker that resolves any number of attacks at once, keyed by attack id, so a battle can reuse a few of
+ * these instead of creating and stopping an {@link AttackActor} for every attack. Every message a creature sends back
+ * about an attack carries its id.
+ */
+public class AttackResolverActor extends AbstractActor {
+    public static Props props() {
+        return Props.create(AttackResolverActor.class);
+    }
+
+    private final Map<Integer, PendingAttack> attacks = new HashMap<>();
+
+    @Override
+    public Receive createReceive() {
+        return receiveBuilder()
+                .match(ResolveAttack.class, this::resolveAttack)
+                .match(CombatantSnapshotReply.class, this::combatantSnapshot)
+                .match(AttackApplied.class, this::attackApplied)
+                .match(AttackFailed.class, this::attackFailed)
+                .build();
+    }
+
+    private void resolveAttack(ResolveAttack msg) {
+        final PendingAttack attack = new PendingAttack(msg, sender());
+        attack.start(self());
+
+        if (!attack.isFinished()) {
+            attacks.put(attack.getAttackId(), attack);
+        }
+    }
+
+    private void combatantSnapshot(CombatantSnapshotReply reply) {
+        final PendingAttack attack = attacks.get(reply.getAttackId());
+
+        if (attack != null) {
+            attack.snapshot(reply.getSnapshot(), self());
+            removeIfFinished(attack);
+        }
+    }
+
+    private void attackApplied(AttackApplied attackApplied) {
+        final PendingAttack attack = attacks.get(attackApplied.getAttackId());
+
+        if (attack != null) {
+            attack.applied(attackApplied, self());
+            removeIfFinished(attack);
+        }
+    }
+
+    private void attackFailed(AttackFailed attackFailed) {
+        final PendingAttack attack = attacks.get(attackFailed.getAttackId());
+
+        if (attack != null) {
+            attack.failed(attackFailed, sender(), self());
+            removeIfFinished(attack);
+        }
+    }
+
+    private void removeIfFinished(PendingAttack attack) {
+        if (attack.isFinished()) {
+            attacks.remove(attack.getAttackId());
+        }
+    }
+}
@@ -1,4 +0,0 @@
-package io.bacta.combat;
-
-public class AttackStatsRequest {
-}
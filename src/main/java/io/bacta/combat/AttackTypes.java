@@ -1,55 +1,86 @@
 package io.bacta.combat;
 
+import lombok.AccessLevel;
 import lombok.Getter;
-import lombok.RequiredArgsConstructor;
 
-import java.util.Random;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.SplittableRandom;
 
 public class AttackTypes {
-    private static final Random RNG = new Random(12949083);
-
-    public static final Attack HEADSHOT = new Attack(
-            "headshot1",
-            new CreatureStats(0, 0, 0, 100, 0, 0, 0, 0, 0),
-            new CreatureStats(20, 0, 0, 0, 0, 0, 0, 0, 0)
-    );
-
-    public static final Attack LEGSHOT = new Attack(
-            "legshot1",
-            new CreatureStats(0, 0, 0, 150, 0, 0, 0, 0, 0),
-            new CreatureStats(10, 0, 0, 0, 0, 0, 0, 0, 0)
-    );
-
-    public static final Attack MINDSHOT = new Attack(
-            "mindshot1",
-            new CreatureStats(0, 0, 0, 250, 0, 0, 0, 0, 0),
-            new CreatureStats(30, 0, 0, 0, 0, 0, 0, 0, 0)
-    );
-
-    public static final Attack FORCECHOKE = new Attack(
-            "forcechoke1",
-            new CreatureStats(20, 0, 0, 300, 0, 0, 0, 0, 0),
-            new CreatureStats(200, 0, 0, 0, 0, 0, 0, 0, 0)
-    );
-
-    private static final Attack[] attacks = new Attack[] {
-            HEADSHOT,
-            LEGSHOT,
-            MINDSHOT,
-            FORCECHOKE
-    };
-
-    public static Attack chooseRandomAttack() {
-        final int index = RNG.nextInt(attacks.length - 1);
-        return attacks[index];
+    /**
+     * The attacks in {@code attacks.txt} next to this class.
+     */
+    public static final AttackRegistry DEFAULT = loadDefault();
+
+    private static AttackRegistry loadDefault() {
+        try {
+            return AttackRegistry.loadResource("attacks.txt");
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * @return the default attack with that name, or null.
+     */
+    public static Attack forName(String name) {
+        return DEFAULT.forName(name);
     }
 
+    /**
+     * @return one of the default attacks, in proportion to their weights.
+     */
+    public static Attack chooseRandomAttack(SplittableRandom rng) {
+        return DEFAULT.choose(rng);
+    }
 
+    /**
+     * Cost and damage are kept both as stats and as primitive vectors indexed like {@link MutableCreatureStats}, so
+     * that engines working on raw stat arrays don't have to go through the getters.
+     */
     @Getter
-    @RequiredArgsConstructor
     public static class Attack {
         private final String name;
         private final CreatureStats cost;
         private final CreatureStats damage;
+
+        @Getter(AccessLevel.NONE)
+        private final int[] costVector;
+        @Getter(AccessLevel.NONE)
+        private final int[] damageVector;
+
+        public Attack(String name, CreatureStats cost, CreatureStats damage) {
+            this.name = name;
+            this.cost = cost;
+            this.damage = damage;
+            this.costVector = vector(cost);
+            this.damageVector = vector(damage);
+        }
+
+        /**
+         * @param stat one of the {@link MutableCreatureStats} indexes.
+         */
+        public int cost(int stat) {
+            return costVector[stat];
+        }
+
+        /**
+         * @param stat one of the {@link MutableCreatureStats} indexes.
+         */
+        public int damage(int stat) {
+            return damageVector[stat];
+        }
+
+        private static int[] vector(CreatureStats stats) {
+            final MutableCreatureStats mutable = new MutableCreatureStats(stats);
+            final int[] vector = new int[MutableCreatureStats.SIZE];
+
+            for (int i = 0; i < vector.length; ++i) {
+                vector[i] = mutable.get(i);
+            }
+
+            return vector;
+        }
     }
 }
@@ -0,0 +1,22 @@
+package io.bacta.combat;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Everything an attack needs to know about a combatant, as of one version. A creature starts at version 0 and bumps
+ * the version on every change, publishing the new snapshot to its battle, so the battle can hand attacks an up to
+ * date snapshot instead of them asking the creature for it.
+ */
+@Getter
+@RequiredArgsConstructor
+public class CombatantSnapshot {
+    /**
+     * Who the snapshot is of, as numbered by the battle.
+     */
+    private final int combatantId;
+    private final String name;
+    private final int version;
+    private final CreatureStats ham;
+    private final int weaponDamage;
+}
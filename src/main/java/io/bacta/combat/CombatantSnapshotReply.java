@@ -5,7 +5,7 @@ import lombok.RequiredArgsConstructor;
 
 @Getter
 @RequiredArgsConstructor
-public class DefenseStats {
-    private final String name;
-    private final CreatureStats ham;
+public class CombatantSnapshotReply {
+    private final int attackId;
+    private final CombatantSnapshot snapshot;
 }
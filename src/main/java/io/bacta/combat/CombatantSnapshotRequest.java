@@ -0,0 +1,14 @@
+package io.bacta.combat;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Asks a creature for its current {@link CombatantSnapshot}, answered with a {@link CombatantSnapshotReply}. Only
+ * needed when the snapshot at hand is out of date.
+ */
+@Getter
+@RequiredArgsConstructor
+public class CombatantSnapshotRequest {
+    private final int attackId;
+}
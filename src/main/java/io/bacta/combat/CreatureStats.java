@@ -7,7 +7,7 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 import java.util.List;
-import java.util.Random;
+import java.util.SplittableRandom;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -16,8 +16,6 @@ import java.util.stream.Stream;
 @NoArgsConstructor
 @AllArgsConstructor
 public class CreatureStats {
-    private static final Random RNG = new Random(89349);
-
     private int health;
     private int strength;
     private int constitution;
@@ -28,16 +26,40 @@ public class CreatureStats {
     private int focus;
     private int willpower;
 
+    /**
+     * A stat is depleted when it is zero or below. {@code stat - 1} is negative for those, except for
+     * {@link Integer#MIN_VALUE} where it wraps around, so the stat itself is OR-ed in as well. The result has its sign
+     * bit set exactly when the stat is depleted, and any number of them can be OR-ed together before the one test.
+     */
+    public static int depleted(int stat) {
+        return (stat - 1) | stat;
+    }
+
     public boolean isIncapacitated() {
-        return this.health <= 0 ||
-                this.strength <= 0 ||
-                this.constitution <= 0 ||
-                this.action <= 0 ||
-                this.quickness <= 0 ||
-                this.stamina <= 0 ||
-                this.mind <= 0 ||
-                this.focus <= 0 ||
-                this.willpower <= 0;
+        return (depleted(health) |
+                depleted(strength) |
+                depleted(constitution) |
+                depleted(action) |
+                depleted(quickness) |
+                depleted(stamina) |
+                depleted(mind) |
+                depleted(focus) |
+                depleted(willpower)) < 0;
+    }
+
+    /**
+     * Same as {@code subtract(other).isIncapacitated()}, without allocating the intermediate stats.
+     */
+    public boolean wouldIncapacitate(CreatureStats other) {
+        return (depleted(health - other.health) |
+                depleted(strength - other.strength) |
+                depleted(constitution - other.constitution) |
+                depleted(action - other.action) |
+                depleted(quickness - other.quickness) |
+                depleted(stamina - other.stamina) |
+                depleted(mind - other.mind) |
+                depleted(focus - other.focus) |
+                depleted(willpower - other.willpower)) < 0;
     }
 
     public CreatureStats subtract(CreatureStats other) {
@@ -74,36 +96,43 @@ public class CreatureStats {
      * @return A collection of CombatSpam messages.
      */
     public List<CombatSpam> createCombatSpam(String attackerName, String defenderName, String attackName) {
+        return createCombatSpam(attackerName, defenderName, attackName, 1);
+    }
+
+    /**
+     * Same as {@code multiplyScalar(scalar).createCombatSpam(...)} without the scaled stats in between.
+     */
+    public List<CombatSpam> createCombatSpam(String attackerName, String defenderName, String attackName, int scalar) {
         //Not the most efficient since we are creating combat spams that we aren't using.
         //We can clean this by turning the internal fields into an array, and creating manual getters that
         //just refer to indices in that array like `private final int[] stats = new int[9];` and
         //stats[HEALTH] for an accessor of health. Then we could filter the array for 0 first.
         return Stream.of(
-                new CombatSpam(attackerName, defenderName, attackName, "health", health),
-                new CombatSpam(attackerName, defenderName, attackName, "strength", strength),
-                new CombatSpam(attackerName, defenderName, attackName, "constitution", constitution),
-                new CombatSpam(attackerName, defenderName, attackName, "action", action),
-                new CombatSpam(attackerName, defenderName, attackName, "quickness", quickness),
-                new CombatSpam(attackerName, defenderName, attackName, "stamina", stamina),
-                new CombatSpam(attackerName, defenderName, attackName, "mind", mind),
-                new CombatSpam(attackerName, defenderName, attackName, "focus", focus),
-                new CombatSpam(attackerName, defenderName, attackName, "willpower", willpower)
+                new CombatSpam(attackerName, defenderName, attackName, "health", health * scalar),
+                new CombatSpam(attackerName, defenderName, attackName, "strength", strength * scalar),
+                new CombatSpam(attackerName, defenderName, attackName, "constitution", constitution * scalar),
+                new CombatSpam(attackerName, defenderName, attackName, "action", action * scalar),
+                new CombatSpam(attackerName, defenderName, attackName, "quickness", quickness * scalar),
+                new CombatSpam(attackerName, defenderName, attackName, "stamina", stamina * scalar),
+                new CombatSpam(attackerName, defenderName, attackName, "mind", mind * scalar),
+                new CombatSpam(attackerName, defenderName, attackName, "focus", focus * scalar),
+                new CombatSpam(attackerName, defenderName, attackName, "willpower", willpower * scalar)
         )
                 .filter(spam -> spam.getValue() != 0)
                 .collect(Collectors.toList());
     }
 
-    public static CreatureStats random() {
+    public static CreatureStats random(SplittableRandom rng) {
         return new CreatureStats(
-                RNG.nextInt(1000) + 500,
-                RNG.nextInt(500) + 250,
-                RNG.nextInt(500) + 250,
-                RNG.nextInt(1000) + 500,
-                RNG.nextInt(500) + 250,
-                RNG.nextInt(500) + 250,
-                RNG.nextInt(1000) + 500,
-                RNG.nextInt(500) + 250,
-                RNG.nextInt(500) + 250
+                rng.nextInt(1000) + 500,
+                rng.nextInt(500) + 250,
+                rng.nextInt(500) + 250,
+                rng.nextInt(1000) + 500,
+                rng.nextInt(500) + 250,
+                rng.nextInt(500) + 250,
+                rng.nextInt(1000) + 500,
+                rng.nextInt(500) + 250,
+                rng.nextInt(500) + 250
         );
     }
 
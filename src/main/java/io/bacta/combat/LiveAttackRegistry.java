@@ -0,0 +1,89 @@
+package io.bacta.combat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.SplittableRandom;
+
+/**
+ * An {@link AttackRegistry} that can be swapped for a new one while battles are running, so attacks can be rebalanced
+ * without restarting the actor system. Registries are immutable, so a swap is a single volatile write and every reader
+ * sees either the whole old registry or the whole new one. An attack that has already been chosen keeps its
+ * {@link AttackTypes.Attack}, so attacks in flight finish with the definition they started with.
+ */
+public class LiveAttackRegistry {
+    private volatile AttackRegistry current;
+
+    //Only set when the registry is backed by a file. Guarded by this.
+    private final Path path;
+    private long lastModified;
+    private long lastSize;
+
+    /**
+     * A registry that only changes through {@link #set(AttackRegistry)}.
+     */
+    public LiveAttackRegistry(AttackRegistry registry) {
+        this.current = registry;
+        this.path = null;
+    }
+
+    private LiveAttackRegistry(Path path, AttackRegistry registry, BasicFileAttributes attributes) {
+        this.current = registry;
+        this.path = path;
+        this.lastModified = attributes.lastModifiedTime().toMillis();
+        this.lastSize = attributes.size();
+    }
+
+    /**
+     * Loads the file now, and again on every {@link #reloadIfChanged()} after it has been modified.
+     */
+    public static LiveAttackRegistry load(Path path) throws IOException {
+        final BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        return new LiveAttackRegistry(path, AttackRegistry.load(path), attributes);
+    }
+
+    public AttackRegistry current() {
+        return current;
+    }
+
+    public AttackTypes.Attack choose(SplittableRandom rng) {
+        return current.choose(rng);
+    }
+
+    public void set(AttackRegistry registry) {
+        current = registry;
+    }
+
+    /**
+     * @return the file behind this registry, or null.
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Reloads the file if its modification time or size changed since it was last loaded. If the new file can't be
+     * read or parsed, the current registry stays in place and the exception is passed on; the file is tried again
+     * after its next change.
+     *
+     * @return true if a new registry was swapped in.
+     * @throws IllegalArgumentException if the file doesn't parse.
+     */
+    public synchronized boolean reloadIfChanged() throws IOException {
+        if (path == null)
+            return false;
+
+        final BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        final long modified = attributes.lastModifiedTime().toMillis();
+
+        if (modified == lastModified && attributes.size() == lastSize)
+            return false;
+
+        lastModified = modified;
+        lastSize = attributes.size();
+
+        set(AttackRegistry.load(path));
+        return true;
+    }
+}
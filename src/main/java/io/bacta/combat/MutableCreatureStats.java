@@ -0,0 +1,143 @@
+package io.bacta.combat;
+
+import static io.bacta.combat.CreatureStats.depleted;
+
+/**
+ * A mutable counterpart to {@link CreatureStats}, packed into a single {@code int[9]} so that stats can be updated
+ * in place instead of allocating a new object for every attack. Instances are meant to be owned by a single actor;
+ * anything that leaves the actor in a message should be a {@link #snapshot()}.
+ */
+public class MutableCreatureStats {
+    public static final int HEALTH = 0;
+    public static final int STRENGTH = 1;
+    public static final int CONSTITUTION = 2;
+    public static final int ACTION = 3;
+    public static final int QUICKNESS = 4;
+    public static final int STAMINA = 5;
+    public static final int MIND = 6;
+    public static final int FOCUS = 7;
+    public static final int WILLPOWER = 8;
+
+    public static final int SIZE = 9;
+
+    private final int[] stats = new int[SIZE];
+
+    public MutableCreatureStats() {
+    }
+
+    public MutableCreatureStats(CreatureStats stats) {
+        set(stats);
+    }
+
+    public int get(int stat) {
+        return stats[stat];
+    }
+
+    public void set(int stat, int value) {
+        stats[stat] = value;
+    }
+
+    public MutableCreatureStats set(CreatureStats other) {
+        stats[HEALTH] = other.getHealth();
+        stats[STRENGTH] = other.getStrength();
+        stats[CONSTITUTION] = other.getConstitution();
+        stats[ACTION] = other.getAction();
+        stats[QUICKNESS] = other.getQuickness();
+        stats[STAMINA] = other.getStamina();
+        stats[MIND] = other.getMind();
+        stats[FOCUS] = other.getFocus();
+        stats[WILLPOWER] = other.getWillpower();
+        return this;
+    }
+
+    public MutableCreatureStats set(MutableCreatureStats other) {
+        System.arraycopy(other.stats, 0, stats, 0, SIZE);
+        return this;
+    }
+
+    public MutableCreatureStats subtractInPlace(MutableCreatureStats other) {
+        for (int i = 0; i < SIZE; ++i) {
+            stats[i] -= other.stats[i];
+        }
+        return this;
+    }
+
+    public MutableCreatureStats subtractInPlace(CreatureStats other) {
+        stats[HEALTH] -= other.getHealth();
+        stats[STRENGTH] -= other.getStrength();
+        stats[CONSTITUTION] -= other.getConstitution();
+        stats[ACTION] -= other.getAction();
+        stats[QUICKNESS] -= other.getQuickness();
+        stats[STAMINA] -= other.getStamina();
+        stats[MIND] -= other.getMind();
+        stats[FOCUS] -= other.getFocus();
+        stats[WILLPOWER] -= other.getWillpower();
+        return this;
+    }
+
+    /**
+     * Same as {@code subtractInPlace(other.multiplyScalar(scalar))} without allocating the scaled stats. Attacks send
+     * their base damage and the weapon's scalar, and the defender scales it here.
+     */
+    public MutableCreatureStats subtractScaledInPlace(CreatureStats other, int scalar) {
+        stats[HEALTH] -= other.getHealth() * scalar;
+        stats[STRENGTH] -= other.getStrength() * scalar;
+        stats[CONSTITUTION] -= other.getConstitution() * scalar;
+        stats[ACTION] -= other.getAction() * scalar;
+        stats[QUICKNESS] -= other.getQuickness() * scalar;
+        stats[STAMINA] -= other.getStamina() * scalar;
+        stats[MIND] -= other.getMind() * scalar;
+        stats[FOCUS] -= other.getFocus() * scalar;
+        stats[WILLPOWER] -= other.getWillpower() * scalar;
+        return this;
+    }
+
+    /**
+     * OR-ing {@link CreatureStats#depleted(int)} of every stat leaves the sign bit set if any stat is depleted, so the
+     * whole check is a handful of ALU ops with no branches.
+     */
+    public boolean isIncapacitated() {
+        return (depleted(stats[HEALTH]) |
+                depleted(stats[STRENGTH]) |
+                depleted(stats[CONSTITUTION]) |
+                depleted(stats[ACTION]) |
+                depleted(stats[QUICKNESS]) |
+                depleted(stats[STAMINA]) |
+                depleted(stats[MIND]) |
+                depleted(stats[FOCUS]) |
+                depleted(stats[WILLPOWER])) < 0;
+    }
+
+    /**
+     * Same as {@code subtract(cost).isIncapacitated()} without writing anything.
+     */
+    public boolean wouldIncapacitate(CreatureStats cost) {
+        return (depleted(stats[HEALTH] - cost.getHealth()) |
+                depleted(stats[STRENGTH] - cost.getStrength()) |
+                depleted(stats[CONSTITUTION] - cost.getConstitution()) |
+                depleted(stats[ACTION] - cost.getAction()) |
+                depleted(stats[QUICKNESS] - cost.getQuickness()) |
+                depleted(stats[STAMINA] - cost.getStamina()) |
+                depleted(stats[MIND] - cost.getMind()) |
+                depleted(stats[FOCUS] - cost.getFocus()) |
+                depleted(stats[WILLPOWER] - cost.getWillpower())) < 0;
+    }
+
+    public CreatureStats snapshot() {
+        return new CreatureStats(
+                stats[HEALTH],
+                stats[STRENGTH],
+                stats[CONSTITUTION],
+                stats[ACTION],
+                stats[QUICKNESS],
+                stats[STAMINA],
+                stats[MIND],
+                stats[FOCUS],
+                stats[WILLPOWER]);
+    }
+
+    @Override
+    public String toString() {
+        return snapshot().toString();
+    }
+}
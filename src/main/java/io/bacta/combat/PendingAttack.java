@@ -0,0 +1,147 @@
+package io.bacta.combat;
+
+import akka.actor.ActorRef;
+import io.bacta.chat.CombatSpam;
+import io.bacta.chat.SystemMessage;
+import io.bacta.sim.BattleSimulationActor;
+
+import java.util.List;
+
+/**
+ * One attack from launch to resolution: gathers whatever snapshots are missing, checks both sides, applies the damage
+ * and reports back to the battle. It doesn't care which actor drives it, so the same rules run in a dedicated
+ * {@link AttackActor} or in a pooled {@link AttackResolverActor}; {@code self} is whichever of them it runs in.
+ */
+class PendingAttack {
+    private final ResolveAttack attack;
+    private final ActorRef battle;
+
+    private CombatantSnapshot attackerSnapshot;
+    private CombatantSnapshot defenderSnapshot;
+    private boolean finished;
+
+    PendingAttack(ResolveAttack attack, ActorRef battle) {
+        this.attack = attack;
+        this.battle = battle;
+        this.attackerSnapshot = attack.getAttackerSnapshot();
+        this.defenderSnapshot = attack.getDefenderSnapshot();
+    }
+
+    int getAttackId() {
+        return attack.getAttackId();
+    }
+
+    /**
+     * @return true once the battle has been told the attack is resolved. Nothing else will happen to it.
+     */
+    boolean isFinished() {
+        return finished;
+    }
+
+    void start(ActorRef self) {
+        if (attackerSnapshot == null) {
+            attack.getAttacker().tell(new CombatantSnapshotRequest(getAttackId()), self);
+        }
+
+        if (defenderSnapshot == null) {
+            attack.getDefender().tell(new CombatantSnapshotRequest(getAttackId()), self);
+        }
+
+        apply(self);
+    }
+
+    void snapshot(CombatantSnapshot snapshot, ActorRef self) {
+        if (snapshot.getCombatantId() == attack.getAttackerId()) {
+            this.attackerSnapshot = snapshot;
+        } else {
+            this.defenderSnapshot = snapshot;
+        }
+
+        apply(self);
+    }
+
+    private void apply(ActorRef self) {
+        if (attackerSnapshot == null || defenderSnapshot == null)
+            return;
+
+        final ActorRef attacker = attack.getAttacker();
+
+        //If the attacker is already incapacitated, then we can stop the attack.
+        if (attackerSnapshot.getHam().isIncapacitated()) {
+            attacker.tell(new AttackFailed(getAttackId(), "You may not attack while incapacitated."), self);
+            sendIncapacitatedParticipant(attack.getAttackerId(), self);
+            finish(null, self);
+            return;
+        }
+
+        //Before we even try to apply an attack, we check if the defender is even able to be attacked.
+        if (defenderSnapshot.getHam().isIncapacitated()) {
+            attacker.tell(new AttackFailed(getAttackId(), String.format("%s is already incapacitated.", defenderSnapshot.getName())), self);
+            sendIncapacitatedParticipant(attack.getDefenderId(), self);
+            finish(null, self);
+            return;
+        }
+
+        final AttackTypes.Attack type = attack.getAttack();
+
+        if (attackerSnapshot.getHam().wouldIncapacitate(type.getCost())) {
+            attacker.tell(new AttackFailed(getAttackId(), "You do not have enough stats to perform the attack."), self);
+            finish(null, self);
+            return;
+        }
+
+        //The snapshots only rule out attacks that can't happen. Whether this one can is up to the attacker as it is
+        //when the attack reaches it, and then up to the defender.
+        attacker.tell(new PerformAttack(getAttackId(), type.getCost(), attack.getDefender(), type.getDamage()), self);
+    }
+
+    void applied(AttackApplied attackApplied, ActorRef self) {
+        final ActorRef attacker = attack.getAttacker();
+
+        final List<CombatSpam> spam = attackApplied.getAppliedDamage().createCombatSpam(
+                attackerSnapshot.getName(),
+                defenderSnapshot.getName(),
+                attack.getAttack().getName(),
+                attackApplied.getWeaponDamage());
+
+        spam.forEach(s -> attacker.tell(s, self));
+
+        if (attackApplied.getDefender().getHam().isIncapacitated()) {
+            attacker.tell(new SystemMessage(String.format("You have incapacitated %s.", defenderSnapshot.getName())), self);
+            sendIncapacitatedParticipant(attack.getDefenderId(), self);
+        }
+
+        finish(attackApplied.getDefender(), self);
+    }
+
+    /**
+     * The attacker or the defender turned the attack down. A defender's reason is passed on to the attacker as if the
+     * defender had sent it; an attacker has already told itself, and published the snapshot that shows why.
+     */
+    void failed(AttackFailed attackFailed, ActorRef from, ActorRef self) {
+        if (!from.equals(attack.getAttacker())) {
+            attack.getAttacker().tell(attackFailed, from);
+            sendIncapacitatedParticipant(attack.getDefenderId(), self);
+        }
+
+        finish(null, self);
+    }
+
+    /**
+     * Every way out of an attack ends here, so the battle can count the attack as resolved.
+     *
+     * @param defenderAfter the defender as the attack left it, or null if no damage was applied.
+     */
+    private void finish(CombatantSnapshot defenderAfter, ActorRef self) {
+        final BattleSimulationActor.AttackResolved resolved = defenderAfter != null
+                ? new BattleSimulationActor.AttackResolved(getAttackId(), true, attack.getDefenderId(), defenderAfter.getVersion())
+                : new BattleSimulationActor.AttackResolved(getAttackId(), false, attack.getDefenderId(), BattleSimulationActor.AttackResolved.NO_VERSION);
+
+        battle.tell(resolved, self);
+        finished = true;
+    }
+
+    private void sendIncapacitatedParticipant(int participant, ActorRef self) {
+        battle.tell(new BattleSimulationActor.ParticipantIncapacitated(participant), self);
+    }
+}
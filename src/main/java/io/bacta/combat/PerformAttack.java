@@ -0,0 +1,20 @@
+package io.bacta.combat;
+
+import akka.actor.ActorRef;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Sent to the attacker once an attack has been checked against the snapshots. The attacker checks its cost again
+ * against its stats as they are now, since the snapshot may be older than an attack that landed on it in the meantime,
+ * and then passes the attack on to the defender as an {@link ApplyAttack} on behalf of whoever sent this. The damage
+ * is the attack's base damage, which the attacker's weapon scales.
+ */
+@Getter
+@RequiredArgsConstructor
+public class PerformAttack {
+    private final int attackId;
+    private final CreatureStats cost;
+    private final ActorRef defender;
+    private final CreatureStats damage;
+}
@@ -0,0 +1,30 @@
+package io.bacta.combat;
+
+import akka.actor.ActorRef;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Hands an attack to an {@link AttackResolverActor}. The sender is the battle, which gets the
+ * {@link io.bacta.sim.BattleSimulationActor.AttackResolved} once it is done.
+ */
+@Getter
+@RequiredArgsConstructor
+public class ResolveAttack {
+    private final int attackId;
+
+    /**
+     * The battle's id for the attacker, and the same for the defender.
+     */
+    private final int attackerId;
+    private final ActorRef attacker;
+
+    /**
+     * The attacker as the battle last saw it, or null if that may be out of date. Same for the defender.
+     */
+    private final CombatantSnapshot attackerSnapshot;
+    private final int defenderId;
+    private final ActorRef defender;
+    private final CombatantSnapshot defenderSnapshot;
+    private final AttackTypes.Attack attack;
+}
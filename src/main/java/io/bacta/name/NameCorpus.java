@@ -0,0 +1,138 @@
+package io.bacta.name;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * A list of names packed into one byte array: a 4 byte big endian count, then every name as a 1 byte length followed by
+ * that many bytes of UTF-8. Names are decoded the first time they are asked for and cached after that. Safe to share
+ * between threads: the cache only ever holds immutable strings, so a race at worst decodes a name twice.
+ */
+public final class NameCorpus {
+    private static final int MAX_NAME_BYTES = 255;
+
+    private final byte[] packed;
+
+    //Where each name's length byte is, and the names decoded so far.
+    private final int[] offsets;
+    private final String[] decoded;
+
+    private NameCorpus(byte[] packed, int[] offsets) {
+        this.packed = packed;
+        this.offsets = offsets;
+        this.decoded = new String[offsets.length];
+    }
+
+    /**
+     * Loads a packed corpus from the classpath, relative to this class.
+     */
+    public static NameCorpus loadResource(String name) throws IOException {
+        final InputStream in = NameCorpus.class.getResourceAsStream(name);
+
+        if (in == null)
+            throw new IOException(String.format("There is no resource %s.", name));
+
+        try (final InputStream resource = in) {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 * 1024);
+            final byte[] buffer = new byte[8192];
+            int read;
+
+            while ((read = resource.read(buffer)) > 0) {
+                bytes.write(buffer, 0, read);
+            }
+
+            return of(bytes.toByteArray());
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if the bytes are not a packed corpus.
+     */
+    public static NameCorpus of(byte[] packed) {
+        if (packed.length < 4)
+            throw new IllegalArgumentException("A packed corpus starts with a 4 byte count.");
+
+        final int count = ((packed[0] & 0xff) << 24) | ((packed[1] & 0xff) << 16) | ((packed[2] & 0xff) << 8) | (packed[3] & 0xff);
+
+        if (count <= 0)
+            throw new IllegalArgumentException(String.format("A packed corpus can't hold %d names.", count));
+
+        final int[] offsets = new int[count];
+        int offset = 4;
+
+        for (int i = 0; i < count; ++i) {
+            if (offset >= packed.length || offset + 1 + (packed[offset] & 0xff) > packed.length)
+                throw new IllegalArgumentException(String.format("The packed corpus ends in name %d of %d.", i, count));
+
+            offsets[i] = offset;
+            offset += 1 + (packed[offset] & 0xff);
+        }
+
+        return new NameCorpus(packed, offsets);
+    }
+
+    public static void pack(List<String> names, OutputStream out) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final int count = names.size();
+
+        bytes.write(count >>> 24);
+        bytes.write(count >>> 16);
+        bytes.write(count >>> 8);
+        bytes.write(count);
+
+        for (final String name : names) {
+            final byte[] utf8 = name.getBytes(StandardCharsets.UTF_8);
+
+            if (utf8.length > MAX_NAME_BYTES)
+                throw new IllegalArgumentException(String.format("%s is longer than %d bytes.", name, MAX_NAME_BYTES));
+
+            bytes.write(utf8.length);
+            bytes.write(utf8);
+        }
+
+        bytes.writeTo(out);
+    }
+
+    public int size() {
+        return offsets.length;
+    }
+
+    public String get(int index) {
+        String name = decoded[index];
+
+        if (name == null) {
+            final int offset = offsets[index];
+            name = new String(packed, offset + 1, packed[offset] & 0xff, StandardCharsets.UTF_8);
+            decoded[index] = name;
+        }
+
+        return name;
+    }
+
+    /**
+     * Packs a text file with one name per line: {@code NameCorpus <names.txt> <names.bin>}. The bundled corpus is
+     * packed from {@code src/main/names/names.txt}.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: NameCorpus <names.txt> <names.bin>");
+            System.exit(2);
+        }
+
+        final List<String> names = Files.readAllLines(Paths.get(args[0]), StandardCharsets.UTF_8);
+        names.removeIf(name -> name.trim().isEmpty());
+
+        try (final OutputStream out = Files.newOutputStream(Paths.get(args[1]))) {
+            pack(names, out);
+        }
+
+        System.out.printf("Packed %d names into %s.\n", names.size(), args[1]);
+    }
+}
@@ -0,0 +1,338 @@
+package io.bacta.name;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeSet;
+
+/**
+ * Made up names built from syllables found in the name corpus: a prefix (consonants, then at least one vowel), any
+ * number of middles (at least one consonant, then at least one vowel) and a suffix (at least one consonant, then
+ * maybe vowels). Syllables always meet where a vowel is followed by a consonant, so a name splits back into its
+ * syllables in exactly one way. That makes {@link #name(long)} a bijection between counters and names: every counter
+ * gets a different name without anybody keeping track of the names handed out so far, and {@link #counterOf(String)}
+ * goes the other way.
+ * <p>
+ * Counters are numbered by length: first every name without a middle syllable, then every name with one, and so on up
+ * to {@link #MAX_MIDDLES}. Within a length a counter is split into one digit per syllable, prefix first. Every digit
+ * after the prefix is shifted by a hash of the digits before it, which keeps the mapping reversible but means that
+ * consecutive counters differ in every syllable rather than just the first. Immutable and thread safe.
+ * <p>
+ * Each syllable table is packed into one char array, so copying a name together reads a few cache lines rather than a
+ * separate array per syllable. {@link #name(long, char[], int)} writes straight into the caller's array and allocates
+ * nothing; {@link #name(long)} builds in a per thread buffer and only allocates the string.
+ */
+public final class SyllableNameGenerator {
+    public static final int MAX_MIDDLES = 6;
+
+    private static final String VOWELS = "aeiouy";
+
+    //Shuffled once, with a fixed seed, so that neighbouring counters don't get alphabetically neighbouring syllables.
+    private static final long SHUFFLE_SEED = 0x5EED5EEDL;
+
+    private final Syllables prefixes;
+    private final Syllables middles;
+    private final Syllables suffixes;
+    private final Map<String, Integer> prefixIndexes;
+    private final Map<String, Integer> middleIndexes;
+    private final Map<String, Integer> suffixIndexes;
+
+    //levelStarts[k] is the first counter of the names with k middles. The last entry is the capacity.
+    private final long[] levelStarts;
+    private final int maxNameLength;
+    private final ThreadLocal<char[]> scratch;
+
+    private SyllableNameGenerator(List<String> prefixes, List<String> middles, List<String> suffixes) {
+        this.prefixes = new Syllables(prefixes);
+        this.middles = new Syllables(middles);
+        this.suffixes = new Syllables(suffixes);
+        this.prefixIndexes = indexes(prefixes);
+        this.middleIndexes = indexes(middles);
+        this.suffixIndexes = indexes(suffixes);
+        this.levelStarts = new long[MAX_MIDDLES + 2];
+
+        long levelSize = (long) prefixes.size() * suffixes.size();
+
+        for (int k = 0; k <= MAX_MIDDLES; ++k) {
+            levelStarts[k + 1] = saturatedAdd(levelStarts[k], levelSize);
+            levelSize = saturatedMultiply(levelSize, middles.size());
+        }
+
+        this.maxNameLength = longest(prefixes) + MAX_MIDDLES * longest(middles) + longest(suffixes);
+        this.scratch = ThreadLocal.withInitial(() -> new char[maxNameLength]);
+    }
+
+    /**
+     * Builds the syllable tables from every corpus name made of the letters a to z only (ignoring case) with at least
+     * two syllables.
+     */
+    public static SyllableNameGenerator fromCorpus(NameCorpus corpus) {
+        final TreeSet<String> prefixes = new TreeSet<>();
+        final TreeSet<String> middles = new TreeSet<>();
+        final TreeSet<String> suffixes = new TreeSet<>();
+
+        for (int i = 0; i < corpus.size(); ++i) {
+            final List<String> syllables = split(corpus.get(i).toLowerCase());
+
+            if (syllables == null || syllables.size() < 2)
+                continue;
+
+            prefixes.add(syllables.get(0));
+            suffixes.add(syllables.get(syllables.size() - 1));
+
+            for (int j = 1; j < syllables.size() - 1; ++j) {
+                middles.add(syllables.get(j));
+            }
+        }
+
+        if (prefixes.isEmpty() || middles.isEmpty())
+            throw new IllegalArgumentException("The corpus has too few names with three syllables or more.");
+
+        return new SyllableNameGenerator(shuffle(prefixes), shuffle(middles), shuffle(suffixes));
+    }
+
+    /**
+     * @return how many different names there are, at most {@link Long#MAX_VALUE}.
+     */
+    public long capacity() {
+        return levelStarts[MAX_MIDDLES + 1];
+    }
+
+    /**
+     * @return the longest name there is, which is how much room {@link #name(long, char[], int)} needs.
+     */
+    public int maxNameLength() {
+        return maxNameLength;
+    }
+
+    /**
+     * @param counter from 0 (inclusive) to {@link #capacity()} (exclusive).
+     */
+    public String name(long counter) {
+        final char[] name = scratch.get();
+        return new String(name, 0, name(counter, name, 0));
+    }
+
+    /**
+     * Writes the name {@link #name(long)} returns for this counter into {@code into}.
+     *
+     * @param counter from 0 (inclusive) to {@link #capacity()} (exclusive).
+     * @param into    with room for {@link #maxNameLength()} chars from {@code offset} on, all of which may be written.
+     * @return where the name ends in {@code into}.
+     */
+    public int name(long counter, char[] into, int offset) {
+        if (counter < 0 || counter >= capacity())
+            throw new IllegalArgumentException(String.format("There is no name number %d.", counter));
+
+        int middleCount = 0;
+
+        while (counter >= levelStarts[middleCount + 1]) {
+            middleCount++;
+        }
+
+        long index = counter - levelStarts[middleCount];
+
+        int digit = (int) (index % prefixes.size());
+        index /= prefixes.size();
+        long mix = digit;
+
+        int length = prefixes.copy(digit, into, offset);
+
+        digit = (int) (index % suffixes.size());
+        index /= suffixes.size();
+
+        final int suffix = shift(digit, mix, suffixes.size());
+        mix = mix * 31 + digit;
+
+        for (int i = 0; i < middleCount; ++i) {
+            digit = (int) (index % middles.size());
+            index /= middles.size();
+
+            length = middles.copy(shift(digit, mix, middles.size()), into, length);
+            mix = mix * 31 + digit;
+        }
+
+        length = suffixes.copy(suffix, into, length);
+
+        //Syllables are lower case a to z.
+        into[offset] = (char) (into[offset] - ('a' - 'A'));
+
+        return length;
+    }
+
+    /**
+     * @return the counter {@link #name(long)} turns into this name, or -1 if it doesn't make this name.
+     */
+    public long counterOf(String name) {
+        final List<String> syllables = split(name.toLowerCase());
+
+        if (syllables == null || syllables.size() < 2 || syllables.size() > MAX_MIDDLES + 2)
+            return -1;
+
+        final int middleCount = syllables.size() - 2;
+        final Integer prefix = prefixIndexes.get(syllables.get(0));
+        final Integer suffix = suffixIndexes.get(syllables.get(middleCount + 1));
+
+        if (prefix == null || suffix == null)
+            return -1;
+
+        //Undo the shifts in the order name() applied them, then put the digits back together slowest first.
+        final int[] digits = new int[middleCount + 2];
+        long mix = prefix;
+
+        digits[0] = prefix;
+        digits[1] = unshift(suffix, mix, suffixes.size());
+        mix = mix * 31 + digits[1];
+
+        for (int i = 1; i <= middleCount; ++i) {
+            final Integer middle = middleIndexes.get(syllables.get(i));
+
+            if (middle == null)
+                return -1;
+
+            digits[i + 1] = unshift(middle, mix, middles.size());
+            mix = mix * 31 + digits[i + 1];
+        }
+
+        long index = 0;
+
+        for (int i = middleCount + 1; i >= 2; --i) {
+            index = index * middles.size() + digits[i];
+        }
+
+        index = (index * suffixes.size() + digits[1]) * prefixes.size() + digits[0];
+
+        //Names past the capacity overflow above; checking the way back catches those and any difference in case.
+        final long counter = levelStarts[middleCount] + index;
+        return counter >= 0 && counter < capacity() && name(counter).equals(name) ? counter : -1;
+    }
+
+    private static int shift(int digit, long mix, int radix) {
+        return (int) ((digit + offset(mix, radix)) % radix);
+    }
+
+    private static int unshift(int shifted, long mix, int radix) {
+        return (int) ((shifted - offset(mix, radix) + radix) % radix);
+    }
+
+    private static long offset(long mix, int radix) {
+        return ((mix * 0x9E3779B97F4A7C15L) >>> 1) % radix;
+    }
+
+    /**
+     * Splits a lower case name wherever a vowel is followed by a consonant.
+     *
+     * @return the syllables, or null if the name has anything but a to z in it or its first syllable has no vowel.
+     */
+    private static List<String> split(String name) {
+        final List<String> syllables = new ArrayList<>(4);
+        int start = 0;
+
+        for (int i = 0; i < name.length(); ++i) {
+            final char c = name.charAt(i);
+
+            if (c < 'a' || c > 'z')
+                return null;
+
+            if (i > 0 && !isVowel(c) && isVowel(name.charAt(i - 1))) {
+                syllables.add(name.substring(start, i));
+                start = i;
+            }
+        }
+
+        syllables.add(name.substring(start));
+
+        final String first = syllables.get(0);
+        return isVowel(first.charAt(first.length() - 1)) ? syllables : null;
+    }
+
+    private static boolean isVowel(char c) {
+        return VOWELS.indexOf(c) >= 0;
+    }
+
+    private static List<String> shuffle(TreeSet<String> syllables) {
+        final List<String> shuffled = new ArrayList<>(syllables);
+        final SplittableRandom rng = new SplittableRandom(SHUFFLE_SEED);
+
+        for (int i = shuffled.size() - 1; i > 0; --i) {
+            final int j = rng.nextInt(i + 1);
+            shuffled.set(i, shuffled.set(j, shuffled.get(i)));
+        }
+
+        return shuffled;
+    }
+
+    private static Map<String, Integer> indexes(List<String> syllables) {
+        final Map<String, Integer> indexes = new HashMap<>(syllables.size() * 2);
+
+        for (int i = 0; i < syllables.size(); ++i) {
+            indexes.put(syllables.get(i), i);
+        }
+
+        return indexes;
+    }
+
+    private static int longest(List<String> syllables) {
+        int longest = 0;
+
+        for (final String syllable : syllables) {
+            longest = Math.max(longest, syllable.length());
+        }
+
+        return longest;
+    }
+
+    private static long saturatedAdd(long a, long b) {
+        final long sum = a + b;
+        return sum < 0 ? Long.MAX_VALUE : sum;
+    }
+
+    private static long saturatedMultiply(long a, long b) {
+        return a > Long.MAX_VALUE / b ? Long.MAX_VALUE : a * b;
+    }
+
+    /**
+     * A syllable table with every syllable in one array, padded to the longest syllable.
+     */
+    private static final class Syllables {
+        private final char[] chars;
+        private final int[] lengths;
+        private final int width;
+
+        private Syllables(List<String> syllables) {
+            this.width = longest(syllables);
+            this.chars = new char[syllables.size() * width];
+            this.lengths = new int[syllables.size()];
+
+            for (int i = 0; i < syllables.size(); ++i) {
+                final String syllable = syllables.get(i);
+
+                syllable.getChars(0, syllable.length(), chars, i * width);
+                lengths[i] = syllable.length();
+            }
+        }
+
+        private int size() {
+            return lengths.length;
+        }
+
+        /**
+         * Copies the whole padded width whatever the syllable's length, so the loop always runs the same number of
+         * times and its exit never mispredicts. The next syllable overwrites the padding. No copy runs past
+         * {@link #maxNameLength}, which allows the longest syllable of every table.
+         *
+         * @return where the syllable ends in {@code name}.
+         */
+        private int copy(int index, char[] name, int length) {
+            final int start = index * width;
+
+            for (int i = 0; i < width; ++i) {
+                name[length + i] = chars[start + i];
+            }
+
+            return length + lengths[index];
+        }
+    }
+}
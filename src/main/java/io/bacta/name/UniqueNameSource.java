@@ -0,0 +1,70 @@
+package io.bacta.name;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands out names that are unique across every thread using it, without locks and without remembering the names. Each
+ * thread takes a block of counters from a shared {@link AtomicLong} and turns them into names with a
+ * {@link SyllableNameGenerator} on its own, so the shared counter is only touched once per block.
+ * <p>
+ * Names come out in no particular order across threads, so this is for creatures that only need a unique name. Battles
+ * that have to be reproducible derive their names from their ids instead.
+ */
+public final class UniqueNameSource {
+    public static final int DEFAULT_BLOCK_SIZE = 4096;
+
+    private final SyllableNameGenerator generator;
+    private final AtomicLong nextBlock;
+    private final int blockSize;
+    private final ThreadLocal<Block> blocks = ThreadLocal.withInitial(Block::new);
+
+    public UniqueNameSource(SyllableNameGenerator generator) {
+        this(generator, 0, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * @param firstCounter where to start, for example to continue after the names a previous run handed out.
+     */
+    public UniqueNameSource(SyllableNameGenerator generator, long firstCounter, int blockSize) {
+        if (blockSize <= 0)
+            throw new IllegalArgumentException("The block size has to be positive.");
+
+        this.generator = generator;
+        this.nextBlock = new AtomicLong(firstCounter);
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * @throws IllegalArgumentException once the generator has run out of names.
+     */
+    public String next() {
+        return generator.name(nextCounter());
+    }
+
+    /**
+     * Writes the next name into {@code into} rather than making a string of it.
+     *
+     * @param into with room for {@link SyllableNameGenerator#maxNameLength()} chars from {@code offset} on.
+     * @return where the name ends in {@code into}.
+     * @throws IllegalArgumentException once the generator has run out of names.
+     */
+    public int next(char[] into, int offset) {
+        return generator.name(nextCounter(), into, offset);
+    }
+
+    private long nextCounter() {
+        final Block block = blocks.get();
+
+        if (block.next == block.end) {
+            block.next = nextBlock.getAndAdd(blockSize);
+            block.end = block.next + blockSize;
+        }
+
+        return block.next++;
+    }
+
+    private static final class Block {
+        private long next;
+        private long end;
+    }
+}
@@ -5,42 +5,62 @@ import akka.japi.pf.ReceiveBuilder;
 import io.bacta.chat.CombatSpam;
 import io.bacta.chat.SystemMessage;
 import io.bacta.combat.*;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 
-import java.util.Random;
+import java.util.SplittableRandom;
 
 @Getter
 @Setter
 public class CreatureObjectActor extends TangibleObjectActor {
-    private static final Random RNG = new Random();
-    private static final int minWeaponDamage = 2;
-    private static final int maxWeaponDamage = 36;
+    public static final int minWeaponDamage = 2;
+    public static final int maxWeaponDamage = 36;
+
+    /**
+     * The creature starts out at snapshot version 0, so whoever creates it can build that snapshot from the same
+     * arguments without asking.
+     */
+    public static Props props(int combatantId, CreatureStats stats, String name, int weaponDamage) {
+        return Props.create(CreatureObjectActor.class, () -> new CreatureObjectActor(combatantId, stats, name, weaponDamage));
+    }
+
+    //Just some defaults for now. Eventually, we will generate weapon and armor objects too.
+    private final MutableCreatureStats ham = new MutableCreatureStats();
+    private final int weaponDamage;
 
-    public static Props props(CreatureStats stats, String name) {
-        return Props.create(CreatureObjectActor.class, () -> {
-            final CreatureObjectActor actor = new CreatureObjectActor(stats);
-            actor.setName(name);
+    //The battle's id for this creature, carried in every snapshot.
+    private final int combatantId;
 
-            return actor;
-        });
+    //Bumped on every change after construction. The snapshot is built on first use and dropped on every change.
+    @Setter(AccessLevel.NONE)
+    private int snapshotVersion;
+    @Setter(AccessLevel.NONE)
+    private CombatantSnapshot snapshot;
+
+    public CreatureObjectActor(int combatantId, CreatureStats initialStats, String name, int weaponDamage) {
+        super.setName(name);
+        this.combatantId = combatantId;
+        this.weaponDamage = weaponDamage;
+        this.ham.set(initialStats);
     }
 
-    //Just some defaults for now. Eventually, we will generate weapon and armor objects too.
-    private CreatureStats ham = new CreatureStats();
-    private AttackStats attackStats = new AttackStats(getName(), this.ham, RNG.nextInt(maxWeaponDamage - minWeaponDamage) + minWeaponDamage);
-    private DefenseStats defenseStats = new DefenseStats(getName(), this.ham);
+    /**
+     * @return a weapon damage between min (inclusive) and max (exclusive).
+     */
+    public static int randomWeaponDamage(SplittableRandom rng, int minWeaponDamage, int maxWeaponDamage) {
+        if (maxWeaponDamage <= minWeaponDamage)
+            return minWeaponDamage;
 
-    public CreatureObjectActor(CreatureStats initialStats) {
-        this.setHam(initialStats);
+        return rng.nextInt(maxWeaponDamage - minWeaponDamage) + minWeaponDamage;
     }
 
     @Override
     protected ReceiveBuilder appendReceiveHandlers(ReceiveBuilder receiveBuilder) {
         return super.appendReceiveHandlers(
                 receiveBuilder
-                        .match(AttackStatsRequest.class, this::sendAttackStats)
-                        .match(DefenseStatsRequest.class, this::sendDefenseStats)
+                        .match(CombatantSnapshotRequest.class, this::sendSnapshot)
+                        .match(PerformAttack.class, this::performAttack)
                         .match(ApplyAttack.class, this::applyAttack)
                         .match(AttackFailed.class, this::attackFailed)
                         .match(SystemMessage.class, this::systemMessage)
@@ -51,34 +71,69 @@ public class CreatureObjectActor extends TangibleObjectActor {
     @Override
     public void setName(String name) {
         super.setName(name);
-
-        this.attackStats = new AttackStats(getName(), ham, attackStats.getWeaponDamage());
-        this.defenseStats = new DefenseStats(getName(), ham);
+        snapshotChanged();
     }
 
     public void setHam(CreatureStats stats) {
-        this.ham = stats;
+        ham.set(stats);
+        hamChanged();
+    }
 
-        this.attackStats = new AttackStats(getName(), stats, attackStats.getWeaponDamage());
-        this.defenseStats = new DefenseStats(getName(), stats);
+    private void hamChanged() {
+        snapshotChanged();
 
         if (ham.isIncapacitated()) {
             self().tell(new SystemMessage("You have become incapacitated."), self());
         }
     }
 
+    /**
+     * Publishes the new snapshot to the battle, which is the parent.
+     */
+    private void snapshotChanged() {
+        snapshotVersion++;
+        snapshot = null;
+
+        context().parent().tell(getSnapshot(), self());
+    }
+
+    /**
+     * The attack was checked against a snapshot of this creature, which may be out of date by now if another attack
+     * landed on it since. Refusing here keeps a creature that has just been incapacitated from still dealing damage.
+     */
+    private void performAttack(PerformAttack attack) {
+        final String reason;
+
+        if (ham.isIncapacitated()) {
+            reason = "You may not attack while incapacitated.";
+        } else if (ham.wouldIncapacitate(attack.getCost())) {
+            reason = "You do not have enough stats to perform the attack.";
+        } else {
+            attack.getDefender().tell(
+                    new ApplyAttack(attack.getAttackId(), attack.getDamage(), weaponDamage),
+                    sender());
+            return;
+        }
+
+        self().tell(new SystemMessage(reason), self());
+        sender().tell(new AttackFailed(attack.getAttackId(), reason), self());
+    }
+
     private void applyAttack(ApplyAttack attack) {
         if (ham.isIncapacitated()) {
-            sender().tell(new AttackFailed("Target is already incapacitated."), self());
+            sender().tell(new AttackFailed(attack.getAttackId(), "Target is already incapacitated."), self());
             return;
         }
 
         final CreatureStats defendedDamage = applyDefenses(attack.getDamage());
-        final CreatureStats appliedAttack = ham.subtract(defendedDamage);
 
-        this.setHam(appliedAttack);
+        ham.subtractScaledInPlace(defendedDamage, attack.getWeaponDamage());
+        hamChanged();
 
-        sender().tell(new AttackApplied(ham, defendedDamage), self());
+        //hamChanged() has already built this snapshot to publish it, so the reply shares it.
+        sender().tell(
+                new AttackApplied(attack.getAttackId(), getSnapshot(), defendedDamage, attack.getWeaponDamage()),
+                self());
     }
 
     private CreatureStats applyDefenses(CreatureStats damage) {
@@ -91,12 +146,15 @@ public class CreatureObjectActor extends TangibleObjectActor {
         self().tell(new SystemMessage(msg.getReason()), self());
     }
 
-    private void sendAttackStats(AttackStatsRequest msg) {
-        sender().tell(attackStats, self());
+    private void sendSnapshot(CombatantSnapshotRequest msg) {
+        sender().tell(new CombatantSnapshotReply(msg.getAttackId(), getSnapshot()), self());
     }
 
-    private void sendDefenseStats(DefenseStatsRequest msg) {
-        sender().tell(defenseStats, self());
+    public CombatantSnapshot getSnapshot() {
+        if (snapshot == null) {
+            snapshot = new CombatantSnapshot(combatantId, getName(), snapshotVersion, ham.snapshot(), weaponDamage);
+        }
+        return snapshot;
     }
 
     private void combatSpam(CombatSpam combatSpam) {
@@ -0,0 +1,69 @@
+package io.bacta.replay;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import io.bacta.App;
+import io.bacta.SimulationSettings;
+import io.bacta.sim.BattleResultSink;
+import io.bacta.sim.BattleStatistics;
+import scala.concurrent.Await;
+import scala.concurrent.duration.Duration;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a simulation so that every {@link io.bacta.sim.BattleSimulationResult} is reproducible from the settings alone.
+ * <p>
+ * The random side is covered by the per-battle streams derived from the master seed. The scheduling side is covered by
+ * running every actor on one thread with a FIFO queue, so messages are always processed in the same order, and by
+ * stretching the round timeout far enough that wall-clock time never decides when a round ends.
+ */
+public final class DeterministicReplay {
+    private static final Config config = ConfigFactory.parseString(
+            "akka.log-dead-letters = off\n" +
+            "akka.log-dead-letters-during-shutdown = off\n" +
+            "akka.actor.default-dispatcher {\n" +
+            "  executor = \"thread-pool-executor\"\n" +
+            "  thread-pool-executor.fixed-pool-size = 1\n" +
+            "}")
+            .withFallback(ConfigFactory.load());
+
+    private DeterministicReplay() {
+    }
+
+    public static Config config() {
+        return config;
+    }
+
+    /**
+     * @return the same settings with a round timeout that can't fire during a replay.
+     */
+    public static SimulationSettings deterministic(SimulationSettings settings) {
+        return settings.toBuilder()
+                .battleSettings(settings.getBattleSettings().toBuilder()
+                        .roundTimeout(Duration.create(1, TimeUnit.DAYS))
+                        .build())
+                .build();
+    }
+
+    /**
+     * Runs the simulation to completion on a fresh single threaded actor system and feeds every result to the sinks.
+     */
+    public static void run(SimulationSettings settings, BattleResultSink... sinks) throws Exception {
+        final ActorSystem actorSystem = ActorSystem.create("bacta-replay", config);
+
+        try {
+            final CompletableFuture<BattleStatistics> completion = new CompletableFuture<>();
+            final ActorRef sim = actorSystem.actorOf(App.props(deterministic(settings), completion, sinks));
+
+            sim.tell(new App.StartSimulation(), ActorRef.noSender());
+
+            completion.get();
+        } finally {
+            Await.ready(actorSystem.terminate(), Duration.create(1, TimeUnit.MINUTES));
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package io.bacta.replay;
+
+import io.bacta.SimulationSettings;
+import io.bacta.combat.AttackMix;
+import io.bacta.combat.AttackTypes;
+import io.bacta.combat.LiveAttackRegistry;
+import io.bacta.sim.AttackResolution;
+import io.bacta.sim.BattleEngine;
+import io.bacta.sim.BattleResultSink;
+import io.bacta.sim.BattleSettings;
+import io.bacta.sim.BattleSimulationResult;
+import io.bacta.sim.ParticipantNames;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Battle results in a canonical text form, one line per battle ordered by id, behind a header holding the settings
+ * that produced them, one {@code # name=value} line each. Two runs agree exactly when their lines are equal.
+ */
+public class GoldenResults implements BattleResultSink {
+    private static final String HEADER_PREFIX = "# ";
+    private static final String NONE = "-";
+
+    private final TreeMap<Integer, String> lines = new TreeMap<>();
+
+    @Override
+    public void accept(BattleSimulationResult result) {
+        lines.put(result.getId(), format(result));
+    }
+
+    public Collection<String> getLines() {
+        return lines.values();
+    }
+
+    public void write(Path path, SimulationSettings settings) throws IOException {
+        final List<String> output = header(settings);
+        output.addAll(lines.values());
+
+        Files.write(path, output, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return the settings recorded in the header of a golden file.
+     * @throws IOException if a setting is missing, unknown or can't be restored.
+     */
+    public static SimulationSettings readSettings(Path path) throws IOException {
+        final Map<String, String> values = readHeader(path);
+        final Set<String> expected = describe(SimulationSettings.builder().build()).keySet();
+
+        for (final String name : expected) {
+            if (!values.containsKey(name))
+                throw new IOException(String.format("%s doesn't record the %s setting.", path, name));
+        }
+
+        for (final String name : values.keySet()) {
+            if (!expected.contains(name))
+                throw new IOException(String.format("%s records an unknown setting %s.", path, name));
+        }
+
+        try {
+            final String attackFile = values.get("attackFile");
+            final LiveAttackRegistry attacks = attackFile.equals(NONE)
+                    ? new LiveAttackRegistry(AttackTypes.DEFAULT)
+                    : LiveAttackRegistry.load(Paths.get(attackFile));
+            final String attackMix = values.get("attackMix");
+
+            final BattleSettings battleSettings = BattleSettings.builder()
+                    .maxRounds(Integer.parseInt(values.get("maxRounds")))
+                    .stalemateRounds(Integer.parseInt(values.get("stalemateRounds")))
+                    .minWeaponDamage(Integer.parseInt(values.get("minWeaponDamage")))
+                    .maxWeaponDamage(Integer.parseInt(values.get("maxWeaponDamage")))
+                    .attackResolution(AttackResolution.valueOf(values.get("attackResolution")))
+                    .attackResolvers(Integer.parseInt(values.get("attackResolvers")))
+                    .attacksInFlight(Integer.parseInt(values.get("attacksInFlight")))
+                    .attacks(attacks)
+                    .attackMix(attackMix.equals(NONE) ? null : AttackMix.parse(attackMix, attacks.current()))
+                    .participantNames(ParticipantNames.valueOf(values.get("participantNames")))
+                    .build();
+
+            return SimulationSettings.builder()
+                    .masterSeed(Long.parseLong(values.get("seed")))
+                    .totalBattleSimulations(Integer.parseInt(values.get("battles")))
+                    .minBattleParticipants(Integer.parseInt(values.get("minParticipants")))
+                    .maxBattleParticipants(Integer.parseInt(values.get("maxParticipants")))
+                    .battleEngine(BattleEngine.valueOf(values.get("engine")))
+                    .battleConcurrency(Integer.parseInt(values.get("concurrency")))
+                    .battleSettings(battleSettings)
+                    .totalTipSimulations(0)
+                    .build();
+        } catch (IllegalArgumentException ex) {
+            throw new IOException(String.format("%s has a bad setting: %s", path, ex.getMessage()), ex);
+        }
+    }
+
+    /**
+     * @return every setting recorded in the header of a golden file, by name.
+     */
+    public static Map<String, String> readHeader(Path path) throws IOException {
+        final Map<String, String> values = new LinkedHashMap<>();
+
+        for (final String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+            if (!line.startsWith(HEADER_PREFIX))
+                break;
+
+            final int separator = line.indexOf('=');
+
+            if (separator > 0) {
+                values.put(line.substring(HEADER_PREFIX.length(), separator), line.substring(separator + 1));
+            }
+        }
+
+        if (values.isEmpty())
+            throw new IOException(String.format("%s is not a golden results file.", path));
+
+        return values;
+    }
+
+    /**
+     * @return the result lines of a golden file, without the header.
+     */
+    public static List<String> readLines(Path path) throws IOException {
+        final List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+        int start = 0;
+
+        while (start < lines.size() && lines.get(start).startsWith(HEADER_PREFIX)) {
+            ++start;
+        }
+
+        return lines.subList(start, lines.size());
+    }
+
+    /**
+     * Every setting that can change a battle result, by name. The round timeout is left out because
+     * {@link DeterministicReplay} replaces it, and the attacks are recorded both by file and by digest so that a file
+     * edited since the recording is caught.
+     */
+    static Map<String, String> describe(SimulationSettings settings) {
+        final BattleSettings battleSettings = settings.getBattleSettings();
+        final LiveAttackRegistry attacks = battleSettings.getAttacks();
+        final Map<String, String> values = new LinkedHashMap<>();
+
+        values.put("seed", Long.toString(settings.getMasterSeed()));
+        values.put("battles", Integer.toString(settings.getTotalBattleSimulations()));
+        values.put("minParticipants", Integer.toString(settings.getMinBattleParticipants()));
+        values.put("maxParticipants", Integer.toString(settings.getMaxBattleParticipants()));
+        values.put("engine", settings.getBattleEngine().name());
+        //Concurrency is part of the run: it decides how messages of different battles interleave on the one thread.
+        values.put("concurrency", Integer.toString(settings.getBattleConcurrency()));
+
+        values.put("maxRounds", Integer.toString(battleSettings.getMaxRounds()));
+        values.put("stalemateRounds", Integer.toString(battleSettings.getStalemateRounds()));
+        values.put("minWeaponDamage", Integer.toString(battleSettings.getMinWeaponDamage()));
+        values.put("maxWeaponDamage", Integer.toString(battleSettings.getMaxWeaponDamage()));
+        values.put("attackResolution", battleSettings.getAttackResolution().name());
+        values.put("attackResolvers", Integer.toString(battleSettings.getAttackResolvers()));
+        values.put("attacksInFlight", Integer.toString(battleSettings.getAttacksInFlight()));
+        values.put("attackFile", attacks.getPath() != null ? attacks.getPath().toString() : NONE);
+        values.put("attackDigest", attacks.current().digest());
+        values.put("attackMix", battleSettings.getAttackMix() != null ? battleSettings.getAttackMix().toString() : NONE);
+        values.put("participantNames", battleSettings.getParticipantNames().name());
+
+        return values;
+    }
+
+    static List<String> header(SimulationSettings settings) {
+        final List<String> header = new ArrayList<>();
+
+        for (final Map.Entry<String, String> entry : describe(settings).entrySet()) {
+            header.add(HEADER_PREFIX + entry.getKey() + '=' + entry.getValue());
+        }
+
+        return header;
+    }
+
+    static String format(BattleSimulationResult result) {
+        return String.format("%d\t%d\t%d\t%d\t%s\t%s",
+                result.getId(),
+                result.getRounds(),
+                result.getTotalParticipants(),
+                result.getTotalAttacks(),
+                result.getOutcome(),
+                String.join(",", result.getWinningParticipants()));
+    }
+}
@@ -0,0 +1,111 @@
+package io.bacta.replay;
+
+import io.bacta.SimulationSettings;
+import io.bacta.sim.BattleEngine;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records the results of a deterministic run to a golden file, or replays the run described by a golden file and
+ * checks that every battle still comes out the same. Use it to show that a change to the combat path is a pure
+ * performance change.
+ *
+ * <pre>
+ * ReplayVerifier record &lt;file&gt; [seed] [battles] [engine] [concurrency]
+ * ReplayVerifier verify &lt;file&gt;
+ * </pre>
+ */
+public class ReplayVerifier {
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: ReplayVerifier record <file> [seed] [battles] [engine] [concurrency] | verify <file>");
+            System.exit(2);
+        }
+
+        final Path path = Paths.get(args[1]);
+
+        switch (args[0]) {
+            case "record":
+                final SimulationSettings settings = SimulationSettings.builder()
+                        .masterSeed(args.length > 2 ? Long.parseLong(args[2]) : 1L)
+                        .totalBattleSimulations(args.length > 3 ? Integer.parseInt(args[3]) : 100)
+                        .battleEngine(args.length > 4 ? BattleEngine.valueOf(args[4]) : BattleEngine.ACTOR)
+                        .battleConcurrency(args.length > 5 ? Integer.parseInt(args[5]) : 64)
+                        .totalTipSimulations(0)
+                        .build();
+
+                record(settings, path);
+                System.out.printf("Recorded %d battles to %s.\n", settings.getTotalBattleSimulations(), path);
+                break;
+
+            case "verify":
+                final List<String> mismatches = verify(path);
+
+                if (!mismatches.isEmpty()) {
+                    mismatches.forEach(System.err::println);
+                    System.exit(1);
+                }
+
+                System.out.printf("All battles in %s replayed identically.\n", path);
+                break;
+
+            default:
+                System.err.printf("Unknown command %s.\n", args[0]);
+                System.exit(2);
+        }
+    }
+
+    public static void record(SimulationSettings settings, Path path) throws Exception {
+        final GoldenResults results = new GoldenResults();
+
+        DeterministicReplay.run(settings, results);
+
+        results.write(path, settings);
+    }
+
+    /**
+     * @return a description of every setting that can't be restored as recorded, or else of every battle that differs
+     * from the golden file; empty if the replay matched.
+     */
+    public static List<String> verify(Path path) throws Exception {
+        final SimulationSettings settings = GoldenResults.readSettings(path);
+        final List<String> expected = GoldenResults.readLines(path);
+        final List<String> mismatches = new ArrayList<>();
+
+        //The replay can only reproduce the recording if it runs with exactly the recorded settings, e.g. not after the
+        //attack file was edited.
+        final Map<String, String> recorded = GoldenResults.readHeader(path);
+
+        for (final Map.Entry<String, String> setting : GoldenResults.describe(settings).entrySet()) {
+            final String recordedValue = recorded.get(setting.getKey());
+
+            if (!setting.getValue().equals(recordedValue)) {
+                mismatches.add(String.format("setting %s: recorded %s, replay would use %s",
+                        setting.getKey(), recordedValue, setting.getValue()));
+            }
+        }
+
+        if (!mismatches.isEmpty())
+            return mismatches;
+
+        final GoldenResults results = new GoldenResults();
+        DeterministicReplay.run(settings, results);
+
+        final List<String> actual = new ArrayList<>(results.getLines());
+
+        for (int i = 0; i < Math.max(expected.size(), actual.size()); ++i) {
+            final String expectedLine = i < expected.size() ? expected.get(i) : "<missing>";
+            final String actualLine = i < actual.size() ? actual.get(i) : "<missing>";
+
+            if (!expectedLine.equals(actualLine)) {
+                mismatches.add(String.format("expected: %s\n  actual: %s", expectedLine, actualLine));
+            }
+        }
+
+        return mismatches;
+    }
+}
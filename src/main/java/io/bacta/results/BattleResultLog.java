@@ -0,0 +1,29 @@
+package io.bacta.results;
+
+/**
+ * Layout of the binary battle result log.
+ * <p>
+ * The file starts with an 8 byte header: the magic number and a format version. After that it is a sequence of
+ * entries, each starting with a tag byte. Integers are unsigned LEB128 varints.
+ * <ul>
+ * <li>{@link #NAME}: a UTF-8 participant name, as a varint byte length and the bytes. Names are numbered in the order
+ * they appear, starting at 0, and results refer to winners by that number.</li>
+ * <li>{@link #RESULT}: battle id, rounds, total participants, total attacks, elided attacks, the outcome ordinal as one
+ * byte, the winner count and then one name number per winner.</li>
+ * </ul>
+ * Entries are only ever appended, so a crash can at worst leave a truncated final entry, which readers ignore.
+ */
+final class BattleResultLog {
+    static final int MAGIC = 0x42524c47; //"BRLG"
+    static final short VERSION = 2;
+    static final int HEADER_SIZE = 8;
+
+    static final byte NAME = 1;
+    static final byte RESULT = 2;
+
+    static final int MAX_VARINT_SIZE = 5;
+    static final int RESULT_VARINTS = 6;
+
+    private BattleResultLog() {
+    }
+}
@@ -0,0 +1,194 @@
+package io.bacta.results;
+
+import io.bacta.sim.BattleOutcome;
+import io.bacta.sim.BattleSimulationResult;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Memory maps a {@link BattleResultLog binary log} for random access by battle id. Opening the log scans it once to
+ * rebuild the name dictionary and an id to offset index; results are decoded from the mapping on demand.
+ * <p>
+ * A single mapping is limited to 2GB, which is on the order of a hundred million battles.
+ */
+public class BattleResultLogReader {
+    private static final BattleOutcome[] outcomes = BattleOutcome.values();
+
+    private final MappedByteBuffer mapping;
+    private final List<String> dictionary = new ArrayList<>();
+
+    //offsets[id] is the position of the battle's RESULT entry, or -1.
+    private int[] offsets = new int[1024];
+    private int size;
+
+    public BattleResultLogReader(Path path) throws IOException {
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE)
+                throw new IOException(String.format("%s is too large to map.", path));
+
+            this.mapping = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (mapping.limit() < BattleResultLog.HEADER_SIZE || mapping.getInt(0) != BattleResultLog.MAGIC)
+            throw new IOException(String.format("%s is not a battle result log.", path));
+
+        if (mapping.getShort(4) != BattleResultLog.VERSION)
+            throw new IOException(String.format("%s has unsupported version %d.", path, mapping.getShort(4)));
+
+        Arrays.fill(offsets, -1);
+        index();
+    }
+
+    /**
+     * @return the number of battles in the log.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the result for the battle, or null if the log doesn't have it.
+     */
+    public BattleSimulationResult read(int battleId) {
+        if (battleId < 0 || battleId >= offsets.length || offsets[battleId] < 0)
+            return null;
+
+        final ByteBuffer entry = mapping.duplicate();
+        entry.position(offsets[battleId] + 1);
+
+        return readResult(entry);
+    }
+
+    /**
+     * Visits every result in battle id order.
+     */
+    public void forEach(Consumer<BattleSimulationResult> consumer) {
+        for (int id = 0; id < offsets.length; ++id) {
+            if (offsets[id] >= 0) {
+                consumer.accept(read(id));
+            }
+        }
+    }
+
+    private void index() {
+        final ByteBuffer entries = mapping.duplicate();
+        entries.position(BattleResultLog.HEADER_SIZE);
+
+        while (entries.hasRemaining()) {
+            final int offset = entries.position();
+
+            try {
+                final byte tag = entries.get();
+
+                if (tag == BattleResultLog.NAME) {
+                    final byte[] bytes = new byte[getVarint(entries)];
+                    entries.get(bytes);
+                    dictionary.add(new String(bytes, StandardCharsets.UTF_8));
+                } else if (tag == BattleResultLog.RESULT) {
+                    final BattleSimulationResult result = readResult(entries);
+                    addOffset(result.getId(), offset);
+                } else {
+                    //Garbage after a torn write. Nothing past this point can be trusted.
+                    return;
+                }
+            } catch (BufferUnderflowException | IndexOutOfBoundsException ex) {
+                //Truncated final entry from a writer that didn't finish.
+                return;
+            }
+        }
+    }
+
+    private void addOffset(int battleId, int offset) {
+        if (battleId >= offsets.length) {
+            final int previousLength = offsets.length;
+            offsets = Arrays.copyOf(offsets, Math.max(battleId + 1, previousLength * 2));
+            Arrays.fill(offsets, previousLength, offsets.length, -1);
+        }
+
+        if (offsets[battleId] < 0) {
+            size++;
+        }
+
+        offsets[battleId] = offset;
+    }
+
+    private BattleSimulationResult readResult(ByteBuffer entry) {
+        final int id = getVarint(entry);
+        final int rounds = getVarint(entry);
+        final int totalParticipants = getVarint(entry);
+        final int totalAttacks = getVarint(entry);
+        final int elidedAttacks = getVarint(entry);
+        final BattleOutcome outcome = outcomes[entry.get()];
+        final int winnerCount = getVarint(entry);
+
+        final List<String> winners = new ArrayList<>(winnerCount);
+
+        for (int i = 0; i < winnerCount; ++i) {
+            winners.add(dictionary.get(getVarint(entry)));
+        }
+
+        return new BattleSimulationResult(id, rounds, totalParticipants, totalAttacks, elidedAttacks, outcome, winners);
+    }
+
+    private static int getVarint(ByteBuffer buffer) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+
+        do {
+            b = buffer.get();
+            value |= (b & 0x7f) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+
+        return value;
+    }
+
+    /**
+     * Prints the results in a log, or only the given battle ids.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: BattleResultLogReader <file> [battleId...]");
+            System.exit(2);
+        }
+
+        final BattleResultLogReader reader = new BattleResultLogReader(Paths.get(args[0]));
+        final Consumer<BattleSimulationResult> printer = result -> System.out.printf(
+                "%-6d: %s after %d rounds with %d participants and %d attacks (%d elided): %s\n",
+                result.getId(),
+                result.getOutcome(),
+                result.getRounds(),
+                result.getTotalParticipants(),
+                result.getTotalAttacks(),
+                result.getElidedAttacks(),
+                String.join(", ", result.getWinningParticipants()));
+
+        if (args.length == 1) {
+            reader.forEach(printer);
+            return;
+        }
+
+        for (int i = 1; i < args.length; ++i) {
+            final BattleSimulationResult result = reader.read(Integer.parseInt(args[i]));
+
+            if (result == null) {
+                System.out.printf("%-6s: not in log\n", args[i]);
+            } else {
+                printer.accept(result);
+            }
+        }
+    }
+}
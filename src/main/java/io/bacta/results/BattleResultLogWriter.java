@@ -0,0 +1,130 @@
+package io.bacta.results;
+
+import io.bacta.sim.BattleResultSink;
+import io.bacta.sim.BattleSimulationResult;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Appends battle results to a {@link BattleResultLog binary log} as they arrive. Entries are encoded into a buffer
+ * that is written to the file channel whenever it fills up, and once more on {@link #close()}.
+ */
+public class BattleResultLogWriter implements BattleResultSink {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final FileChannel channel;
+    private ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+    private final Map<String, Integer> dictionary = new HashMap<>();
+
+    public BattleResultLogWriter(Path path) throws IOException {
+        this.channel = FileChannel.open(path,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+
+        buffer.putInt(BattleResultLog.MAGIC);
+        buffer.putShort(BattleResultLog.VERSION);
+        buffer.putShort((short) 0);
+    }
+
+    @Override
+    public void accept(BattleSimulationResult result) {
+        try {
+            write(result);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    public void write(BattleSimulationResult result) throws IOException {
+        final List<String> winners = result.getWinningParticipants();
+        final int[] nameIds = new int[winners.size()];
+
+        for (int i = 0; i < nameIds.length; ++i) {
+            nameIds[i] = nameId(winners.get(i));
+        }
+
+        ensureRemaining(2 + BattleResultLog.MAX_VARINT_SIZE * (BattleResultLog.RESULT_VARINTS + nameIds.length));
+
+        buffer.put(BattleResultLog.RESULT);
+        putVarint(result.getId());
+        putVarint(result.getRounds());
+        putVarint(result.getTotalParticipants());
+        putVarint(result.getTotalAttacks());
+        putVarint(result.getElidedAttacks());
+        buffer.put((byte) result.getOutcome().ordinal());
+        putVarint(nameIds.length);
+
+        for (final int nameId : nameIds) {
+            putVarint(nameId);
+        }
+    }
+
+    public void flush() throws IOException {
+        buffer.flip();
+
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+
+        buffer.clear();
+    }
+
+    @Override
+    public void close() {
+        try {
+            flush();
+            channel.close();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private int nameId(String name) throws IOException {
+        final Integer existing = dictionary.get(name);
+
+        if (existing != null)
+            return existing;
+
+        final byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        ensureRemaining(1 + BattleResultLog.MAX_VARINT_SIZE + bytes.length);
+
+        buffer.put(BattleResultLog.NAME);
+        putVarint(bytes.length);
+        buffer.put(bytes);
+
+        final int id = dictionary.size();
+        dictionary.put(name, id);
+        return id;
+    }
+
+    private void ensureRemaining(int bytes) throws IOException {
+        if (buffer.remaining() >= bytes)
+            return;
+
+        flush();
+
+        if (buffer.capacity() < bytes) {
+            buffer = ByteBuffer.allocateDirect(bytes);
+        }
+    }
+
+    private void putVarint(int value) {
+        while ((value & ~0x7f) != 0) {
+            buffer.put((byte) ((value & 0x7f) | 0x80));
+            value >>>= 7;
+        }
+
+        buffer.put((byte) value);
+    }
+}
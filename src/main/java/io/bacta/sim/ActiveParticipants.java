@@ -0,0 +1,90 @@
+package io.bacta.sim;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * The participants of a battle who are still able to fight, by participant id. Ids live in a dense array and an id to
+ * slot array, so membership, removal (swap with the last slot) and picking a random target are all constant time and
+ * allocation free. Not thread safe; it belongs to the battle actor.
+ */
+class ActiveParticipants {
+    private static final int NOT_ACTIVE = -1;
+
+    private final int[] participants;
+    private final int[] positions;
+    private int size;
+
+    /**
+     * @param capacity one more than the highest participant id.
+     */
+    ActiveParticipants(int capacity) {
+        this.participants = new int[capacity];
+        this.positions = new int[capacity];
+
+        Arrays.fill(positions, NOT_ACTIVE);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return the id of the participant in slot {@code index}.
+     */
+    int get(int index) {
+        return participants[index];
+    }
+
+    boolean contains(int participant) {
+        return positions[participant] != NOT_ACTIVE;
+    }
+
+    void add(int participant) {
+        if (contains(participant))
+            return;
+
+        positions[participant] = size;
+        participants[size++] = participant;
+    }
+
+    /**
+     * @return false if the participant was not active.
+     */
+    boolean remove(int participant) {
+        final int position = positions[participant];
+
+        if (position == NOT_ACTIVE)
+            return false;
+
+        final int last = participants[--size];
+
+        participants[position] = last;
+        positions[last] = position;
+        positions[participant] = NOT_ACTIVE;
+
+        return true;
+    }
+
+    /**
+     * Picks a participant uniformly at random from everyone active except {@code exclude}.
+     *
+     * @return the chosen participant's id, or -1 if there is nobody else.
+     */
+    int chooseRandom(int exclude, SplittableRandom rng) {
+        final int excluded = positions[exclude];
+
+        if (excluded == NOT_ACTIVE) {
+            return size > 0 ? participants[rng.nextInt(size)] : -1;
+        }
+
+        final int candidates = size - 1;
+
+        if (candidates < 1)
+            return -1;
+
+        //Draw from every slot but the last, and let the excluded slot stand in for the last one.
+        final int index = rng.nextInt(candidates);
+        return participants[index == excluded ? candidates : index];
+    }
+}
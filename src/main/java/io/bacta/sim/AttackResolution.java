@@ -0,0 +1,20 @@
+package io.bacta.sim;
+
+/**
+ * How the {@link BattleEngine#ACTOR} engine resolves its attacks. Both follow the same rules, and a seed gives the same
+ * participants either way. The fights themselves differ: attacks resolve in a different order, which changes who is
+ * still standing when later attacks are chosen, and so the rounds, attacks and winners. Compare the two by throughput
+ * per attack or per round, not per battle.
+ */
+public enum AttackResolution {
+    /**
+     * A new {@link io.bacta.combat.AttackActor} for every attack, stopped once the attack is resolved.
+     */
+    ACTOR_PER_ATTACK,
+
+    /**
+     * A few long-lived {@link io.bacta.combat.AttackResolverActor}s per battle, created with the battle. Each attack
+     * goes to one of them by attack id.
+     */
+    POOLED
+}
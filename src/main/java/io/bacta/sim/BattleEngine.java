@@ -0,0 +1,34 @@
+package io.bacta.sim;
+
+import akka.actor.Props;
+
+/**
+ * The available implementations of a battle. Both accept {@link BattleSimulationActor.StartBattle} and reply to their
+ * parent with a {@link BattleSimulationResult}, so they can be swapped per battle.
+ */
+public enum BattleEngine {
+    /**
+     * One actor per participant and one actor per attack.
+     */
+    ACTOR {
+        @Override
+        public Props props(int battleId, int totalParticipants, long seed, BattleSettings settings) {
+            return BattleSimulationActor.props(battleId, totalParticipants, seed, settings);
+        }
+    },
+
+    /**
+     * A single actor per battle holding every participant in primitive arrays.
+     */
+    DATA_ORIENTED {
+        @Override
+        public Props props(int battleId, int totalParticipants, long seed, BattleSettings settings) {
+            return DataOrientedBattleSimulationActor.props(battleId, totalParticipants, seed, settings);
+        }
+    };
+
+    /**
+     * @param seed seeds every random choice the battle makes, see {@link RandomStreams#battleSeed(long, int)}.
+     */
+    public abstract Props props(int battleId, int totalParticipants, long seed, BattleSettings settings);
+}
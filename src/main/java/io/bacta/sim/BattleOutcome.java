@@ -0,0 +1,18 @@
+package io.bacta.sim;
+
+public enum BattleOutcome {
+    /**
+     * At most one participant was left standing.
+     */
+    DECIDED,
+
+    /**
+     * Nobody's HAM changed for {@link BattleSettings#getStalemateRounds()} rounds in a row.
+     */
+    STALEMATE,
+
+    /**
+     * The battle was still going after {@link BattleSettings#getMaxRounds()} rounds.
+     */
+    ROUND_LIMIT
+}
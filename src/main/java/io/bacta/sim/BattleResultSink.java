@@ -0,0 +1,15 @@
+package io.bacta.sim;
+
+/**
+ * Receives battle results as they come in. A sink is only ever called from the actor that owns it, so it needs no
+ * synchronization of its own.
+ */
+public interface BattleResultSink {
+    void accept(BattleSimulationResult result);
+
+    /**
+     * Called once after the last result.
+     */
+    default void close() {
+    }
+}
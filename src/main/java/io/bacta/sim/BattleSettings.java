@@ -0,0 +1,93 @@
+package io.bacta.sim;
+
+import io.bacta.combat.AttackMix;
+import io.bacta.combat.AttackTypes;
+import io.bacta.combat.LiveAttackRegistry;
+import io.bacta.objects.CreatureObjectActor;
+import lombok.Builder;
+import lombok.Getter;
+import scala.concurrent.duration.Duration;
+import scala.concurrent.duration.FiniteDuration;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits and balance parameters that apply to every battle, whichever {@link BattleEngine} runs it.
+ */
+@Getter
+@Builder(toBuilder = true)
+public class BattleSettings {
+    public static final BattleSettings DEFAULT = BattleSettings.builder().build();
+
+    /**
+     * The battle ends with {@link BattleOutcome#ROUND_LIMIT} once this many rounds have been fought.
+     */
+    @Builder.Default
+    private final int maxRounds = 1000;
+
+    /**
+     * The battle ends with {@link BattleOutcome#STALEMATE} after this many consecutive rounds without any HAM change.
+     */
+    @Builder.Default
+    private final int stalemateRounds = 10;
+
+    /**
+     * A round that has not resolved all of its attacks by then is closed anyway, so one lost attack can't stall a
+     * battle. Only used by engines that resolve attacks asynchronously.
+     */
+    @Builder.Default
+    private final FiniteDuration roundTimeout = Duration.create(1, TimeUnit.SECONDS);
+
+    @Builder.Default
+    private final int minWeaponDamage = CreatureObjectActor.minWeaponDamage;
+
+    /**
+     * Exclusive.
+     */
+    @Builder.Default
+    private final int maxWeaponDamage = CreatureObjectActor.maxWeaponDamage;
+
+    /**
+     * Only used by {@link BattleEngine#ACTOR}.
+     */
+    @Builder.Default
+    private final AttackResolution attackResolution = AttackResolution.POOLED;
+
+    /**
+     * Resolvers per battle when attacks are {@link AttackResolution#POOLED}.
+     */
+    @Builder.Default
+    private final int attackResolvers = 1;
+
+    /**
+     * Attacks a battle has out at once within a round. Lower values let more of a round's attacks see who the earlier
+     * ones incapacitated, so fewer of them are wasted on participants that are out of the fight. Only used by
+     * {@link BattleEngine#ACTOR}.
+     */
+    @Builder.Default
+    private final int attacksInFlight = 8;
+
+    /**
+     * The attacks to choose from, with their usual weights. Read once per attack, so a new registry swapped in takes
+     * effect with the next attack of every battle.
+     */
+    @Builder.Default
+    private final LiveAttackRegistry attacks = new LiveAttackRegistry(AttackTypes.DEFAULT);
+
+    @Builder.Default
+    private final ParticipantNames participantNames = ParticipantNames.CORPUS;
+
+    /**
+     * Weighted attack choice overriding the weights in {@link #attacks}, or null.
+     */
+    private final AttackMix attackMix;
+
+    public AttackTypes.Attack chooseAttack(SplittableRandom rng) {
+        return attackMix != null ? attackMix.choose(rng) : attacks.choose(rng);
+    }
+
+    public int randomWeaponDamage(SplittableRandom rng) {
+        return CreatureObjectActor.randomWeaponDamage(rng, minWeaponDamage, maxWeaponDamage);
+    }
+}
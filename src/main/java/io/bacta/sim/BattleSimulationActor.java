@@ -2,47 +2,87 @@ package io.bacta.sim;
 
 import akka.actor.AbstractActor;
 import akka.actor.ActorRef;
+import akka.actor.Cancellable;
 import akka.actor.Props;
-import akka.stream.ActorMaterializer;
-import akka.stream.Materializer;
-import akka.stream.javadsl.Source;
 import io.bacta.combat.AttackActor;
+import io.bacta.combat.AttackResolverActor;
 import io.bacta.combat.AttackTypes;
+import io.bacta.combat.CombatantSnapshot;
 import io.bacta.combat.CreatureStats;
-import io.bacta.name.NameGenerator;
+import io.bacta.combat.ResolveAttack;
 import io.bacta.objects.CreatureObjectActor;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
-import lombok.Setter;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
-import java.util.Random;
-import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.SplittableRandom;
 
 public class BattleSimulationActor extends AbstractActor {
-    private static final AtomicInteger battleIdGenerator = new AtomicInteger();
-    private static final Random RNG = new Random();
+    private int battleRound;
+    private int totalAttacks;
+    private int elidedAttacks;
 
-    private final AtomicInteger battleRound = new AtomicInteger();
+    private final RoundAttacks roundAttacks = new RoundAttacks();
+    private Cancellable roundTimer;
 
-    public static Props props(int totalParticipants) {
-        return Props.create(BattleSimulationActor.class, () -> new BattleSimulationActor(totalParticipants));
+    //The round's attack tickets that have not been turned into attacks yet. Tickets are only handed out while fewer
+    //than BattleSettings.attacksInFlight attacks are out, so the later ones see who the earlier ones incapacitated.
+    private final ArrayDeque<AttackRandomParticipant> roundTickets = new ArrayDeque<>();
+
+    private boolean roundChangedHam;
+    private int roundsWithoutHamChange;
+
+    private boolean finished;
+
+    public static Props props(int battleId, int totalParticipants, long seed, BattleSettings settings) {
+        return Props.create(BattleSimulationActor.class,
+                () -> new BattleSimulationActor(battleId, totalParticipants, seed, settings));
     }
 
     private final int battleId;
-    private final List<BattleParticipant> participants;
+    private final BattleSettings settings;
+    private final SplittableRandom rng;
+    //Participants are known by their index in here, which is also the combatant id they put in their snapshots.
+    private final BattleParticipant[] participants;
+    private final ActiveParticipants activeParticipants;
+    private final BitSet incapacitated;
+
+    //Bumped whenever a participant's outstanding attack tickets become void.
+    private final int[] generations;
 
-    public BattleSimulationActor(int totalParticipants) {
-        this.battleId = battleIdGenerator.incrementAndGet();
+    //Empty unless attacks are pooled.
+    private final ActorRef[] attackResolvers;
+
+    public BattleSimulationActor(int battleId, int totalParticipants, long seed, BattleSettings settings) {
+        this.battleId = battleId;
+        this.settings = settings;
+        this.rng = new SplittableRandom(seed);
 
 //        System.out.printf("Battle %d created with %d participants.\n", battleId, totalParticipants);
 
-        this.participants = Stream.generate(this::createParticipant)
-                .limit(totalParticipants)
-                .collect(Collectors.toCollection(CopyOnWriteArrayList::new));
+        this.participants = new BattleParticipant[totalParticipants];
+        this.activeParticipants = new ActiveParticipants(totalParticipants);
+        this.incapacitated = new BitSet(totalParticipants);
+        this.generations = new int[totalParticipants];
+
+        //Distinct, so that the winners in the result can be told apart.
+        final String[] names = settings.getParticipantNames().generate(battleId, totalParticipants, rng);
+
+        for (int i = 0; i < totalParticipants; ++i) {
+            participants[i] = createParticipant(i, names[i]);
+            activeParticipants.add(i);
+        }
+
+        this.attackResolvers = new ActorRef[settings.getAttackResolution() == AttackResolution.POOLED
+                ? Math.max(settings.getAttackResolvers(), 1)
+                : 0];
+
+        for (int i = 0; i < attackResolvers.length; ++i) {
+            attackResolvers[i] = context().actorOf(AttackResolverActor.props());
+        }
     }
 
     @Override
@@ -51,102 +91,230 @@ public class BattleSimulationActor extends AbstractActor {
                 .match(StartBattle.class, this::startBattle)
                 .match(FinishBattle.class, this::finishBattle)
                 .match(StartBattleRound.class, this::startBattleRound)
-                .match(AttackRandomParticipant.class, this::attackRandomParticipant)
+                .match(AttackResolved.class, this::attackResolved)
+                .match(RoundTimedOut.class, this::roundTimedOut)
                 .match(ParticipantIncapacitated.class, this::participantIncapacitated)
+                .match(CombatantSnapshot.class, this::combatantSnapshot)
                 .build();
     }
 
+    @Override
+    public void postStop() {
+        if (roundTimer != null) {
+            roundTimer.cancel();
+        }
+    }
+
     private void startBattle(StartBattle msg) {
         self().tell(new StartBattleRound(), self());
     }
 
+    /**
+     * Every active participant gets one attack per round. The next round only starts once all of them have been
+     * resolved (or skipped), or when the round runs out of time.
+     */
     private void startBattleRound(StartBattleRound msg) {
-        final Materializer materializer = ActorMaterializer.create(context().system());
+        if (activeParticipants.size() <= 1) {
+            self().tell(new FinishBattle(BattleOutcome.DECIDED), self());
+            return;
+        }
 
-        final List<BattleParticipant> activeParticipants = participants.stream()
-                .filter(p -> !p.incapacitated)
-                .collect(Collectors.toList());
+        if (roundsWithoutHamChange >= settings.getStalemateRounds()) {
+            self().tell(new FinishBattle(BattleOutcome.STALEMATE), self());
+            return;
+        }
 
-        if (activeParticipants.size() <= 1) {
-            self().tell(new FinishBattle(), self());
+        if (battleRound >= settings.getMaxRounds()) {
+            self().tell(new FinishBattle(BattleOutcome.ROUND_LIMIT), self());
             return;
         }
 
-        battleRound.incrementAndGet();
+        battleRound++;
+        roundChangedHam = false;
 
 //        System.out.printf("Starting battle round %d with %d active participants.\n",
-//                battleRound.get(),
+//                battleRound,
 //                activeParticipants.size());
 
-        Source.from(activeParticipants)
-                .map(AttackRandomParticipant::new)
-                .runForeach(m -> self().tell(m, self()), materializer)
-                .thenRun(() -> self().tell(new StartBattleRound(), self()));
+        roundAttacks.startRound(activeParticipants.size());
+
+        for (int i = 0; i < activeParticipants.size(); ++i) {
+            final int participant = activeParticipants.get(i);
+            roundTickets.add(new AttackRandomParticipant(participant, generations[participant]));
+        }
+
+        roundTimer = context().system().scheduler().scheduleOnce(
+                settings.getRoundTimeout(),
+                self(),
+                new RoundTimedOut(battleRound),
+                context().dispatcher(),
+                self());
+
+        launchAttacks();
+    }
+
+    private void launchAttacks() {
+        while (roundAttacks.getInFlight() < settings.getAttacksInFlight() && !roundTickets.isEmpty()) {
+            attackRandomParticipant(roundTickets.poll());
+        }
+    }
+
+    private void attackResolved(AttackResolved msg) {
+        if (msg.defenderVersion != AttackResolved.NO_VERSION) {
+            participants[msg.defender].expectVersion(msg.defenderVersion);
+        }
+
+        if (!roundAttacks.isCurrent(msg.attackId))
+            return;
+
+        roundChangedHam |= msg.damageApplied;
+
+        if (roundAttacks.resolved()) {
+            endBattleRound();
+        }
+
+        launchAttacks();
+    }
+
+    private void roundAttackSkipped() {
+        if (roundAttacks.skipped()) {
+            endBattleRound();
+        }
+    }
+
+    private void roundTimedOut(RoundTimedOut msg) {
+        if (msg.round == battleRound && roundAttacks.getOutstanding() > 0) {
+            //Whatever is still in flight is ignored when it resolves; the tickets never get used.
+            elidedAttacks += roundTickets.size();
+            roundTickets.clear();
+            roundAttacks.close();
+            endBattleRound();
+        }
+    }
+
+    private void endBattleRound() {
+        roundTimer.cancel();
+
+        roundsWithoutHamChange = roundChangedHam ? 0 : roundsWithoutHamChange + 1;
+        self().tell(new StartBattleRound(), self());
     }
 
     private void finishBattle(FinishBattle msg) {
-        final List<String> winningParticipants = participants.stream()
-                .filter(p -> !p.incapacitated)
-                .map(p -> p.name)
-                .collect(Collectors.toList());
+        finishBattle(msg.outcome);
+    }
+
+    /**
+     * Publishes the result and stops the battle, which takes the participants, the resolvers and any attacks still in
+     * flight down with it.
+     */
+    private void finishBattle(BattleOutcome outcome) {
+        if (finished)
+            return;
+
+        finished = true;
+
+        if (roundTimer != null) {
+            roundTimer.cancel();
+        }
+
+        elidedAttacks += roundTickets.size();
+        roundTickets.clear();
+
+        final List<String> winningParticipants = new ArrayList<>(activeParticipants.size());
+
+        for (int i = 0; i < activeParticipants.size(); ++i) {
+            winningParticipants.add(participants[activeParticipants.get(i)].name);
+        }
 
         final BattleSimulationResult result
-                = new BattleSimulationResult(battleId, battleRound.get(), participants.size(), winningParticipants);
+                = new BattleSimulationResult(battleId, battleRound, participants.length, totalAttacks, elidedAttacks, outcome, winningParticipants);
 
         context().parent().tell(result, self());
+        context().stop(self());
     }
 
     private void participantIncapacitated(ParticipantIncapacitated msg) {
-        for (final BattleParticipant participant : participants) {
-            if (participant.participant.equals(msg.participant)) {
-                participant.incapacitated = true;
-            }
-        }
+        incapacitate(msg.participant);
     }
 
-    private void attackRandomParticipant(AttackRandomParticipant msg) {
-        final ActorRef attacker = msg.getParticipant().participant;
-        final ActorRef defender = chooseRandomParticipant(attacker);
-        final AttackTypes.Attack attack = AttackTypes.chooseRandomAttack();
+    private void combatantSnapshot(CombatantSnapshot snapshot) {
+        participants[snapshot.getCombatantId()].updateSnapshot(snapshot);
 
-        if (defender == null) {
-            //Unable to find any defenders, so battle is over...
-            return;
+        //The snapshot usually gets here before the attack that caused it reports the incapacitation.
+        if (snapshot.getHam().isIncapacitated()) {
+            incapacitate(snapshot.getCombatantId());
         }
+    }
 
-        //Creating an actor to carry out the attack.
-        context().actorOf(AttackActor.props(attacker, defender, attack));
+    /**
+     * Takes the participant out of the fight and voids every attack ticket it still holds.
+     */
+    private void incapacitate(int participant) {
+        if (incapacitated.get(participant))
+            return;
+
+        activeParticipants.remove(participant);
+        incapacitated.set(participant);
+        generations[participant]++;
+
+        //Fast path: with nobody left to fight, the rest of the round can only fail, so don't wait for it.
+        if (activeParticipants.size() <= 1) {
+            finishBattle(BattleOutcome.DECIDED);
+        }
     }
 
-    private ActorRef chooseRandomParticipant(ActorRef attacker) {
-        final List<BattleParticipant> activeParticipants = participants.stream()
-                .filter(p -> !p.incapacitated)
-                .filter(p -> !p.participant.equals(attacker))
-                .collect(Collectors.toList());
+    private void attackRandomParticipant(AttackRandomParticipant msg) {
+        final int attackerId = msg.getParticipant();
 
-        final int count = activeParticipants.size();
+        //The attacker was incapacitated after the ticket was issued. The attack could only fail, so it is dropped
+        //before anything is sent. Defenders are only ever chosen among the active participants, so they are current.
+        if (msg.generation != generations[attackerId]) {
+            elidedAttacks++;
+            roundAttackSkipped();
+            return;
+        }
 
-        if (count < 1)
-            return null;
+        final int defenderId = activeParticipants.chooseRandom(attackerId, rng);
+        final AttackTypes.Attack attack = settings.chooseAttack(rng);
 
-        if (count == 1)
-            return activeParticipants.get(0).participant;
+        if (defenderId < 0) {
+            //Unable to find any defenders, so battle is over...
+            roundAttackSkipped();
+            return;
+        }
 
-        //Otherwise, pick a random one.
-        final int index = RNG.nextInt(activeParticipants.size() - 1);
-        //Concurrency issue here as participants size could change after we fetched it to generate the random index...
-        return activeParticipants.get(index).participant;
+        final BattleParticipant attacker = participants[attackerId];
+        final BattleParticipant defender = participants[defenderId];
+
+        //The attack only asks the participants for their stats if what we have of them is out of date.
+        totalAttacks++;
+
+        final ResolveAttack resolveAttack = new ResolveAttack(
+                roundAttacks.launch(),
+                attackerId,
+                attacker.participant,
+                attacker.currentSnapshot(),
+                defenderId,
+                defender.participant,
+                defender.currentSnapshot(),
+                attack);
+
+        if (attackResolvers.length > 0) {
+            attackResolvers[resolveAttack.getAttackId() % attackResolvers.length].tell(resolveAttack, self());
+        } else {
+            context().actorOf(AttackActor.props(resolveAttack));
+        }
     }
 
-    private BattleParticipant createParticipant() {
-        final CreatureStats stats = CreatureStats.random();
-        final String name = NameGenerator.generate();
+    private BattleParticipant createParticipant(int id, String name) {
+        final CreatureStats stats = CreatureStats.random(rng);
+        final int weaponDamage = settings.randomWeaponDamage(rng);
 
         //System.out.printf("Created participant %s (%s)\n", name, stats.toString());
 
-        final ActorRef participant = context().actorOf(CreatureObjectActor.props(stats, name));
+        final ActorRef participant = context().actorOf(CreatureObjectActor.props(id, stats, name, weaponDamage));
 
-        return new BattleParticipant(participant, name);
+        return new BattleParticipant(participant, name, new CombatantSnapshot(id, name, 0, stats, weaponDamage));
     }
 
     public static class StartBattle {
@@ -155,23 +323,85 @@ public class BattleSimulationActor extends AbstractActor {
     private static class StartBattleRound {
     }
 
+    @RequiredArgsConstructor
     private static class FinishBattle {
+        private final BattleOutcome outcome;
     }
 
     @Getter
-    @RequiredArgsConstructor
     public class BattleParticipant {
         private final ActorRef participant;
         private final String name;
 
-        @Setter
-        private boolean incapacitated;
+        //The newest snapshot the participant has published, and the newest version we know exists. When they differ,
+        //the snapshot is in the mail and attacks have to ask the participant instead.
+        private CombatantSnapshot snapshot;
+        private int expectedVersion;
+
+        public BattleParticipant(ActorRef participant, String name, CombatantSnapshot snapshot) {
+            this.participant = participant;
+            this.name = name;
+            this.snapshot = snapshot;
+            this.expectedVersion = snapshot.getVersion();
+        }
+
+        /**
+         * @return the snapshot if it is current, otherwise null.
+         */
+        public CombatantSnapshot currentSnapshot() {
+            return snapshot.getVersion() >= expectedVersion ? snapshot : null;
+        }
+
+        private void updateSnapshot(CombatantSnapshot snapshot) {
+            if (snapshot.getVersion() > this.snapshot.getVersion()) {
+                this.snapshot = snapshot;
+            }
+
+            expectVersion(snapshot.getVersion());
+        }
+
+        private void expectVersion(int version) {
+            expectedVersion = Math.max(expectedVersion, version);
+        }
     }
 
+    /**
+     * An attack ticket: the participant may attack once this round, provided it is still at the same generation when
+     * the ticket comes up.
+     */
     @Getter
     @RequiredArgsConstructor
     public static class AttackRandomParticipant {
-        private final BattleParticipant participant;
+        private final int participant;
+        private final int generation;
+    }
+
+    @RequiredArgsConstructor
+    private static class RoundTimedOut {
+        private final int round;
+    }
+
+    /**
+     * Sent by an attack to its battle when it is done, whatever the outcome.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static class AttackResolved {
+        public static final int NO_VERSION = -1;
+
+        private final int attackId;
+        private final boolean damageApplied;
+
+        /**
+         * The defender's participant id within the battle.
+         */
+        private final int defender;
+
+        /**
+         * The defender's snapshot version after the damage, or {@link #NO_VERSION}. The snapshot itself may arrive
+         * later; until then the battle knows that the one it has is stale.
+         */
+        private final int defenderVersion;
     }
 
     /**
@@ -180,6 +410,6 @@ public class BattleSimulationActor extends AbstractActor {
     @Getter
     @RequiredArgsConstructor
     public static class ParticipantIncapacitated {
-        private final ActorRef participant;
+        private final int participant;
     }
 }
@@ -11,5 +11,16 @@ public class BattleSimulationResult {
     private final int id;
     private final int rounds;
     private final int totalParticipants;
+    private final int totalAttacks;
+
+    /**
+     * Attacks dropped before they were resolved because their attacker was already out of the fight.
+     */
+    private final int elidedAttacks;
+    private final BattleOutcome outcome;
     private final List<String> winningParticipants;
+
+    public BattleSimulationResult(int id, int rounds, int totalParticipants, int totalAttacks, BattleOutcome outcome, List<String> winningParticipants) {
+        this(id, rounds, totalParticipants, totalAttacks, 0, outcome, winningParticipants);
+    }
 }
@@ -0,0 +1,154 @@
+package io.bacta.sim;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+
+/**
+ * Running statistics over battle results. Results are folded in as they arrive and then dropped, so memory depends
+ * on the largest round count and participant count seen, never on the number of battles.
+ */
+public class BattleStatistics implements BattleResultSink {
+    private long battles;
+    private long totalRounds;
+    private long totalAttacks;
+    private long elidedAttacks;
+    private final long[] outcomes = new long[BattleOutcome.values().length];
+
+    //Indexed by round count, winner count and participant count respectively. They grow on demand.
+    private long[] roundHistogram = new long[64];
+    private long[] winnerHistogram = new long[8];
+    private long[] battlesByParticipants = new long[64];
+    private long[] roundsByParticipants = new long[64];
+
+    private int maxRounds;
+    private int maxWinners;
+    private int maxParticipants;
+
+    @Override
+    public void accept(BattleSimulationResult result) {
+        final int rounds = result.getRounds();
+        final int winners = result.getWinningParticipants().size();
+        final int participants = result.getTotalParticipants();
+
+        battles++;
+        totalRounds += rounds;
+        totalAttacks += result.getTotalAttacks();
+        elidedAttacks += result.getElidedAttacks();
+        outcomes[result.getOutcome().ordinal()]++;
+
+        roundHistogram = ensureCapacity(roundHistogram, rounds);
+        roundHistogram[rounds]++;
+        maxRounds = Math.max(maxRounds, rounds);
+
+        winnerHistogram = ensureCapacity(winnerHistogram, winners);
+        winnerHistogram[winners]++;
+        maxWinners = Math.max(maxWinners, winners);
+
+        battlesByParticipants = ensureCapacity(battlesByParticipants, participants);
+        roundsByParticipants = ensureCapacity(roundsByParticipants, participants);
+        battlesByParticipants[participants]++;
+        roundsByParticipants[participants] += rounds;
+        maxParticipants = Math.max(maxParticipants, participants);
+    }
+
+    public long getBattles() {
+        return battles;
+    }
+
+    public long getTotalRounds() {
+        return totalRounds;
+    }
+
+    public long getTotalAttacks() {
+        return totalAttacks;
+    }
+
+    public long getElidedAttacks() {
+        return elidedAttacks;
+    }
+
+    public long getOutcomeCount(BattleOutcome outcome) {
+        return outcomes[outcome.ordinal()];
+    }
+
+    public double getMeanRounds() {
+        return battles == 0 ? 0 : (double) totalRounds / battles;
+    }
+
+    /**
+     * @return the number of battles that ended with exactly {@code winners} participants standing.
+     */
+    public long getWinnerCount(int winners) {
+        return winners < winnerHistogram.length ? winnerHistogram[winners] : 0;
+    }
+
+    /**
+     * @return the mean number of rounds of battles with exactly {@code participants} participants, or 0 if none ran.
+     */
+    public double getMeanRounds(int participants) {
+        if (participants >= battlesByParticipants.length || battlesByParticipants[participants] == 0)
+            return 0;
+
+        return (double) roundsByParticipants[participants] / battlesByParticipants[participants];
+    }
+
+    /**
+     * @param percentile between 0 and 100.
+     * @return the smallest round count that at least {@code percentile} percent of battles finished within.
+     */
+    public int getRoundsPercentile(double percentile) {
+        if (battles == 0)
+            return 0;
+
+        final long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * battles));
+        long seen = 0;
+
+        for (int rounds = 0; rounds <= maxRounds; ++rounds) {
+            seen += roundHistogram[rounds];
+
+            if (seen >= rank)
+                return rounds;
+        }
+
+        return maxRounds;
+    }
+
+    public void print(PrintStream out) {
+        out.printf("%d battles, %d rounds, %d attacks, %d elided.\n", battles, totalRounds, totalAttacks, elidedAttacks);
+
+        for (final BattleOutcome outcome : BattleOutcome.values()) {
+            out.printf("  %-12s %d\n", outcome, outcomes[outcome.ordinal()]);
+        }
+
+        out.printf("Rounds: mean %.2f, p50 %d, p90 %d, p99 %d, max %d\n",
+                getMeanRounds(),
+                getRoundsPercentile(50),
+                getRoundsPercentile(90),
+                getRoundsPercentile(99),
+                maxRounds);
+
+        out.println("Winners per battle:");
+        for (int winners = 0; winners <= maxWinners; ++winners) {
+            if (winnerHistogram[winners] > 0) {
+                out.printf("  %-4d %d\n", winners, winnerHistogram[winners]);
+            }
+        }
+
+        out.println("Mean rounds by participant count:");
+        for (int participants = 0; participants <= maxParticipants; ++participants) {
+            if (battlesByParticipants[participants] > 0) {
+                out.printf("  %-4d %.2f (%d battles)\n",
+                        participants,
+                        getMeanRounds(participants),
+                        battlesByParticipants[participants]);
+            }
+        }
+    }
+
+    private static long[] ensureCapacity(long[] array, int index) {
+        if (index < array.length)
+            return array;
+
+        return Arrays.copyOf(array, Math.max(index + 1, array.length * 2));
+    }
+}
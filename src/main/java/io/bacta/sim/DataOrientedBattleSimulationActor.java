@@ -0,0 +1,253 @@
+package io.bacta.sim;
+
+import akka.actor.AbstractActor;
+import akka.actor.Props;
+import io.bacta.combat.AttackTypes;
+import io.bacta.combat.CreatureStats;
+import io.bacta.combat.MutableCreatureStats;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static io.bacta.combat.CreatureStats.depleted;
+
+/**
+ * Runs the same battle rules as {@link BattleSimulationActor}, but without any participant or attack actors. Every
+ * participant is a slot in a set of primitive arrays, one per HAM stat, and attacks are resolved inline while the
+ * round is processed. A round is still one message to this actor, so many battles share the dispatcher fairly.
+ */
+public class DataOrientedBattleSimulationActor extends AbstractActor {
+    public static Props props(int battleId, int totalParticipants, long seed, BattleSettings settings) {
+        return Props.create(DataOrientedBattleSimulationActor.class,
+                () -> new DataOrientedBattleSimulationActor(battleId, totalParticipants, seed, settings));
+    }
+
+    private final int battleId;
+    private final BattleSettings settings;
+    private final SplittableRandom rng;
+    private final int totalParticipants;
+
+    private final String[] names;
+    private final int[] weaponDamage;
+
+    private final int[] health;
+    private final int[] strength;
+    private final int[] constitution;
+    private final int[] action;
+    private final int[] quickness;
+    private final int[] stamina;
+    private final int[] mind;
+    private final int[] focus;
+    private final int[] willpower;
+
+    private final BitSet incapacitated;
+
+    //Dense list of the participants still standing. position[] maps a participant back to its slot so it can be
+    //swap-removed in constant time once incapacitated.
+    private final int[] active;
+    private final int[] position;
+    private int activeCount;
+
+    //Attack order for the current round, copied from active[] so that removals during the round don't reorder it.
+    private final int[] roundOrder;
+
+    private int battleRound;
+    private int totalAttacks;
+
+    private boolean roundChangedHam;
+    private int roundsWithoutHamChange;
+
+    public DataOrientedBattleSimulationActor(int battleId, int totalParticipants, long seed, BattleSettings settings) {
+        this.battleId = battleId;
+        this.settings = settings;
+        this.rng = new SplittableRandom(seed);
+        this.totalParticipants = totalParticipants;
+
+        //Distinct, so that the winners in the result can be told apart.
+        this.names = settings.getParticipantNames().generate(battleId, totalParticipants, rng);
+        this.weaponDamage = new int[totalParticipants];
+
+        this.health = new int[totalParticipants];
+        this.strength = new int[totalParticipants];
+        this.constitution = new int[totalParticipants];
+        this.action = new int[totalParticipants];
+        this.quickness = new int[totalParticipants];
+        this.stamina = new int[totalParticipants];
+        this.mind = new int[totalParticipants];
+        this.focus = new int[totalParticipants];
+        this.willpower = new int[totalParticipants];
+
+        this.incapacitated = new BitSet(totalParticipants);
+
+        this.active = new int[totalParticipants];
+        this.position = new int[totalParticipants];
+        this.roundOrder = new int[totalParticipants];
+
+        for (int i = 0; i < totalParticipants; ++i) {
+            createParticipant(i);
+        }
+    }
+
+    @Override
+    public Receive createReceive() {
+        return receiveBuilder()
+                .match(BattleSimulationActor.StartBattle.class, this::startBattle)
+                .match(StartBattleRound.class, this::startBattleRound)
+                .build();
+    }
+
+    private void startBattle(BattleSimulationActor.StartBattle msg) {
+        self().tell(new StartBattleRound(), self());
+    }
+
+    private void startBattleRound(StartBattleRound msg) {
+        if (activeCount <= 1) {
+            finishBattle(BattleOutcome.DECIDED);
+            return;
+        }
+
+        if (roundsWithoutHamChange >= settings.getStalemateRounds()) {
+            finishBattle(BattleOutcome.STALEMATE);
+            return;
+        }
+
+        if (battleRound >= settings.getMaxRounds()) {
+            finishBattle(BattleOutcome.ROUND_LIMIT);
+            return;
+        }
+
+        battleRound++;
+        roundChangedHam = false;
+
+        final int attackers = activeCount;
+        System.arraycopy(active, 0, roundOrder, 0, attackers);
+
+        for (int i = 0; i < attackers; ++i) {
+            final int attacker = roundOrder[i];
+
+            if (!incapacitated.get(attacker)) {
+                attackRandomParticipant(attacker);
+            }
+        }
+
+        roundsWithoutHamChange = roundChangedHam ? 0 : roundsWithoutHamChange + 1;
+
+        self().tell(msg, self());
+    }
+
+    private void finishBattle(BattleOutcome outcome) {
+        final List<String> winningParticipants = new ArrayList<>(activeCount);
+
+        for (int i = 0; i < activeCount; ++i) {
+            winningParticipants.add(names[active[i]]);
+        }
+
+        final BattleSimulationResult result
+                = new BattleSimulationResult(battleId, battleRound, totalParticipants, totalAttacks, outcome, winningParticipants);
+
+        context().parent().tell(result, self());
+    }
+
+    private void attackRandomParticipant(int attacker) {
+        final int defender = chooseRandomParticipant(attacker);
+
+        if (defender < 0)
+            return;
+
+        final AttackTypes.Attack attack = settings.chooseAttack(rng);
+        totalAttacks++;
+
+        //Same rule as the attack actor: the cost is checked but not deducted.
+        if (wouldIncapacitate(attacker, attack))
+            return;
+
+        applyDamage(defender, attack, weaponDamage[attacker]);
+        roundChangedHam = true;
+
+        if (isIncapacitated(defender)) {
+            incapacitate(defender);
+        }
+    }
+
+    private int chooseRandomParticipant(int attacker) {
+        final int candidates = activeCount - 1;
+
+        if (candidates < 1)
+            return -1;
+
+        //Pick uniformly among everyone but the attacker by treating the attacker's slot as the last one.
+        final int index = rng.nextInt(candidates);
+        return index == position[attacker] ? active[candidates] : active[index];
+    }
+
+    private boolean wouldIncapacitate(int participant, AttackTypes.Attack attack) {
+        return (depleted(health[participant] - attack.cost(MutableCreatureStats.HEALTH)) |
+                depleted(strength[participant] - attack.cost(MutableCreatureStats.STRENGTH)) |
+                depleted(constitution[participant] - attack.cost(MutableCreatureStats.CONSTITUTION)) |
+                depleted(action[participant] - attack.cost(MutableCreatureStats.ACTION)) |
+                depleted(quickness[participant] - attack.cost(MutableCreatureStats.QUICKNESS)) |
+                depleted(stamina[participant] - attack.cost(MutableCreatureStats.STAMINA)) |
+                depleted(mind[participant] - attack.cost(MutableCreatureStats.MIND)) |
+                depleted(focus[participant] - attack.cost(MutableCreatureStats.FOCUS)) |
+                depleted(willpower[participant] - attack.cost(MutableCreatureStats.WILLPOWER))) < 0;
+    }
+
+    private void applyDamage(int participant, AttackTypes.Attack attack, int scalar) {
+        health[participant] -= attack.damage(MutableCreatureStats.HEALTH) * scalar;
+        strength[participant] -= attack.damage(MutableCreatureStats.STRENGTH) * scalar;
+        constitution[participant] -= attack.damage(MutableCreatureStats.CONSTITUTION) * scalar;
+        action[participant] -= attack.damage(MutableCreatureStats.ACTION) * scalar;
+        quickness[participant] -= attack.damage(MutableCreatureStats.QUICKNESS) * scalar;
+        stamina[participant] -= attack.damage(MutableCreatureStats.STAMINA) * scalar;
+        mind[participant] -= attack.damage(MutableCreatureStats.MIND) * scalar;
+        focus[participant] -= attack.damage(MutableCreatureStats.FOCUS) * scalar;
+        willpower[participant] -= attack.damage(MutableCreatureStats.WILLPOWER) * scalar;
+    }
+
+    private boolean isIncapacitated(int participant) {
+        return (depleted(health[participant]) |
+                depleted(strength[participant]) |
+                depleted(constitution[participant]) |
+                depleted(action[participant]) |
+                depleted(quickness[participant]) |
+                depleted(stamina[participant]) |
+                depleted(mind[participant]) |
+                depleted(focus[participant]) |
+                depleted(willpower[participant])) < 0;
+    }
+
+    private void incapacitate(int participant) {
+        incapacitated.set(participant);
+
+        final int slot = position[participant];
+        final int last = active[--activeCount];
+
+        active[slot] = last;
+        position[last] = slot;
+    }
+
+    private void createParticipant(int participant) {
+        final CreatureStats stats = CreatureStats.random(rng);
+
+        weaponDamage[participant] = settings.randomWeaponDamage(rng);
+
+        health[participant] = stats.getHealth();
+        strength[participant] = stats.getStrength();
+        constitution[participant] = stats.getConstitution();
+        action[participant] = stats.getAction();
+        quickness[participant] = stats.getQuickness();
+        stamina[participant] = stats.getStamina();
+        mind[participant] = stats.getMind();
+        focus[participant] = stats.getFocus();
+        willpower[participant] = stats.getWillpower();
+
+        active[activeCount] = participant;
+        position[participant] = activeCount;
+        activeCount++;
+    }
+
+    private static class StartBattleRound {
+    }
+}
@@ -0,0 +1,49 @@
+package io.bacta.sim;
+
+import io.bacta.name.NameGenerator;
+import io.bacta.name.SyllableNameGenerator;
+
+import java.util.SplittableRandom;
+
+/**
+ * Where a battle gets its participants' names. Either way the names within a battle are distinct and only depend on the
+ * battle's id and random stream, so replays stay reproducible.
+ */
+public enum ParticipantNames {
+    /**
+     * Real names from the corpus, distinct within a battle but repeated across battles.
+     */
+    CORPUS {
+        @Override
+        public String[] generate(int battleId, int count, SplittableRandom rng) {
+            return NameGenerator.generateDistinct(rng, count);
+        }
+    },
+
+    /**
+     * Made up names, unique across every battle of a simulation. Participant {@code i} of a battle gets the counter
+     * that the (battle id, i) pair maps to, which keeps the counters small, and the names short, for small ids.
+     */
+    SYLLABLES {
+        @Override
+        public String[] generate(int battleId, int count, SplittableRandom rng) {
+            final SyllableNameGenerator generator = NameGenerator.syllables();
+            final String[] names = new String[count];
+
+            for (int i = 0; i < count; ++i) {
+                names[i] = generator.name(pair(battleId, i));
+            }
+
+            return names;
+        }
+    };
+
+    public abstract String[] generate(int battleId, int count, SplittableRandom rng);
+
+    /**
+     * Szudzik's pairing function: a bijection from pairs of non-negative ints to non-negative longs.
+     */
+    static long pair(long a, long b) {
+        return a >= b ? a * a + a + b : a + b * b;
+    }
+}
@@ -0,0 +1,33 @@
+package io.bacta.sim;
+
+import java.util.SplittableRandom;
+
+/**
+ * Derives independent random streams from a single master seed. Every battle gets its own {@link SplittableRandom},
+ * seeded from the master seed and the battle id, so battles never share generator state across threads and any battle
+ * can be replayed from its id alone.
+ */
+public final class RandomStreams {
+    //Same increment SplittableRandom uses between consecutive seeds.
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private RandomStreams() {
+    }
+
+    public static long battleSeed(long masterSeed, int battleId) {
+        return mix64(masterSeed + GOLDEN_GAMMA * battleId);
+    }
+
+    public static SplittableRandom forBattle(long masterSeed, int battleId) {
+        return new SplittableRandom(battleSeed(masterSeed, battleId));
+    }
+
+    /**
+     * The SplitMix64 finalizer. Nearby inputs, like consecutive battle ids, come out uncorrelated.
+     */
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
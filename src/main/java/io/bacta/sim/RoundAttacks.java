@@ -0,0 +1,71 @@
+package io.bacta.sim;
+
+/**
+ * Keeps count of a battle round's attacks: how many the round is still waiting for, and how many of those have been
+ * launched and not resolved yet. Attacks are numbered in the order they are launched, so an attack numbered below the
+ * round's first one belongs to a round that has already been closed. Not thread safe; it belongs to the battle actor.
+ */
+class RoundAttacks {
+    private int nextAttackId;
+    private int roundFirstAttackId;
+    private int outstanding;
+    private int inFlight;
+
+    /**
+     * Opens a round that ends once {@code attacks} attacks have been resolved or skipped.
+     */
+    void startRound(int attacks) {
+        roundFirstAttackId = nextAttackId;
+        outstanding = attacks;
+        inFlight = 0;
+    }
+
+    /**
+     * Closes the round before all of its attacks are in. Attacks still in flight are forgotten, and
+     * {@link #isCurrent(int)} no longer counts them when they resolve late.
+     */
+    void close() {
+        roundFirstAttackId = nextAttackId;
+        outstanding = 0;
+        inFlight = 0;
+    }
+
+    /**
+     * @return the id of a newly launched attack.
+     */
+    int launch() {
+        inFlight++;
+        return nextAttackId++;
+    }
+
+    boolean isCurrent(int attackId) {
+        return attackId >= roundFirstAttackId;
+    }
+
+    /**
+     * One of the round's launched attacks has been resolved.
+     *
+     * @return true if the round has nothing left to wait for.
+     */
+    boolean resolved() {
+        inFlight--;
+        return --outstanding == 0;
+    }
+
+    /**
+     * One of the round's attacks won't be launched after all.
+     *
+     * @return true if the round has nothing left to wait for.
+     */
+    boolean skipped() {
+        return --outstanding == 0;
+    }
+
+    int getOutstanding() {
+        return outstanding;
+    }
+
+    int getInFlight() {
+        return inFlight;
+    }
+}
@@ -1,19 +1,219 @@
 package io.bacta.sim;
 
 import akka.actor.AbstractActor;
+import akka.actor.ActorRef;
+import akka.actor.OneForOneStrategy;
 import akka.actor.Props;
+import akka.actor.SupervisorStrategy;
+import akka.japi.pf.DeciderBuilder;
+import io.bacta.tip.IdempotencyCache;
+import io.bacta.tip.Tip;
+import io.bacta.tip.TipLedgerShard;
+import io.bacta.tip.TipResults;
+import io.bacta.tip.TipSettings;
+import io.bacta.tip.TipStatus;
+import io.bacta.tip.TipWriteAheadLog;
+import io.bacta.tip.TransferBatch;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
 
-import java.util.concurrent.atomic.AtomicInteger;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
+/**
+ * The entry point of the tip ledger. Clients send it {@link Tip}s; it sorts them by the shard that owns the sending
+ * account and passes them on in batches, and the shards answer the clients directly with {@link TipResults}.
+ * <p>
+ * A shard's batch is sent as soon as it is full, or otherwise once every message already in this actor's mailbox has
+ * been sorted. Under load that makes batches large, and when idle a tip still goes out right away.
+ * <p>
+ * If {@link TipSettings#getWriteAheadLog()} is set, the ledger starts from the balances in that log. Any shard failure
+ * fails this actor too, so that a restart rebuilds every shard from the log rather than one shard from scratch.
+ */
 public class TipSimulationActor extends AbstractActor {
-    private static final AtomicInteger idGenerator = new AtomicInteger(1);
+    public static Props props(TipSettings settings) {
+        return Props.create(TipSimulationActor.class, () -> new TipSimulationActor(settings));
+    }
+
+    private final TipSettings settings;
+    private final List<ActorRef> shards = new ArrayList<>();
+    private TipWriteAheadLog log;
+    private final TransferBatch[] pending;
+    private boolean flushScheduled;
+
+    private final Map<Long, PendingAudit> audits = new HashMap<>();
+    private long nextAuditId = 1;
+
+    public TipSimulationActor(TipSettings settings) {
+        this.settings = settings;
+        this.pending = new TransferBatch[settings.getShards()];
+    }
+
+    @Override
+    public void preStart() throws IOException {
+        final long[] balances;
+        final IdempotencyCache[] idempotencyCaches = new IdempotencyCache[settings.getShards()];
+
+        for (int shard = 0; shard < idempotencyCaches.length; ++shard) {
+            idempotencyCaches[shard] = new IdempotencyCache(settings.getIdempotencyKeysPerShard(), settings.getIdempotencyTtlMillis());
+        }
+
+        if (settings.getWriteAheadLog() != null) {
+            //Replaying the keys as of their commit time leaves each cache as it was, less whatever has expired since.
+            log = TipWriteAheadLog.open(settings.getWriteAheadLog(), settings, new TipWriteAheadLog.Replay() {
+                @Override
+                public void remembered(int from, long idempotencyKey, long committedAtMillis) {
+                    idempotencyCaches[settings.shardOf(from)].add(from, idempotencyKey, committedAtMillis);
+                }
+
+                @Override
+                public void replayed(long tipId, int from, int to, long amount, long idempotencyKey, long committedAtMillis) {
+                    if (idempotencyKey != Tip.NO_IDEMPOTENCY_KEY) {
+                        remembered(from, idempotencyKey, committedAtMillis);
+                    }
+                }
+            });
+            balances = log.getRecoveredBalances();
+        } else {
+            balances = new long[settings.getAccounts()];
+            Arrays.fill(balances, settings.getInitialBalance());
+        }
+
+        for (int shard = 0; shard < settings.getShards(); ++shard) {
+            final long[] shardBalances = new long[settings.accountsInShard(shard)];
+
+            for (int slot = 0; slot < shardBalances.length; ++slot) {
+                shardBalances[slot] = balances[slot * settings.getShards() + shard];
+            }
 
-    public static Props props() {
-        return Props.create(TipSimulationActor.class);
+            shards.add(context().actorOf(
+                    TipLedgerShard.props(shard, settings, shardBalances, idempotencyCaches[shard], log),
+                    "shard-" + shard));
+        }
+
+        final TipLedgerShard.Shards directory = new TipLedgerShard.Shards(Collections.unmodifiableList(new ArrayList<>(shards)));
+
+        for (final ActorRef shard : shards) {
+            shard.tell(directory, self());
+        }
+    }
+
+    @Override
+    public void postStop() throws IOException {
+        if (log != null) {
+            log.close();
+        }
+    }
+
+    @Override
+    public SupervisorStrategy supervisorStrategy() {
+        return new OneForOneStrategy(DeciderBuilder.matchAny(ex -> SupervisorStrategy.escalate()).build());
     }
 
     @Override
     public Receive createReceive() {
-        return receiveBuilder().build();
+        return receiveBuilder()
+                .match(Tip.class, this::tip)
+                .match(FlushBatches.class, this::flushBatches)
+                .match(AuditLedger.class, this::auditLedger)
+                .match(TipLedgerShard.ShardAudit.class, this::shardAudit)
+                .build();
+    }
+
+    private void tip(Tip tip) {
+        if (!settings.isAccount(tip.getFrom())
+                || !settings.isAccount(tip.getTo())
+                || tip.getFrom() == tip.getTo()
+                || tip.getAmount() <= 0) {
+            sender().tell(TipResults.of(tip.getTipId(), TipStatus.INVALID), self());
+            return;
+        }
+
+        final int shard = settings.shardOf(tip.getFrom());
+
+        if (pending[shard] == null) {
+            pending[shard] = new TransferBatch(settings.getMaxBatchSize());
+        }
+
+        pending[shard].add(tip, sender());
+
+        if (pending[shard].isFull()) {
+            flush(shard);
+        } else if (!flushScheduled) {
+            //Lands behind everything already queued, so the batches fill up with whatever is waiting first.
+            flushScheduled = true;
+            self().tell(new FlushBatches(), self());
+        }
+    }
+
+    private void flushBatches(FlushBatches msg) {
+        flushScheduled = false;
+
+        for (int shard = 0; shard < pending.length; ++shard) {
+            flush(shard);
+        }
+    }
+
+    private void flush(int shard) {
+        if (pending[shard] == null)
+            return;
+
+        shards.get(shard).tell(new TipLedgerShard.Debit(pending[shard]), self());
+        pending[shard] = null;
+    }
+
+    /**
+     * Only exact while no tips are in flight; the balance of a tip that has been debited but not yet credited is
+     * missing from the total.
+     */
+    private void auditLedger(AuditLedger msg) {
+        final long auditId = nextAuditId++;
+        audits.put(auditId, new PendingAudit(sender()));
+
+        for (final ActorRef shard : shards) {
+            shard.tell(new TipLedgerShard.AuditShard(auditId), self());
+        }
+    }
+
+    private void shardAudit(TipLedgerShard.ShardAudit msg) {
+        final PendingAudit audit = audits.get(msg.getAuditId());
+
+        if (audit == null)
+            return;
+
+        audit.totalBalance += msg.getTotalBalance();
+
+        if (++audit.shards == shards.size()) {
+            audits.remove(msg.getAuditId());
+            audit.requester.tell(new LedgerAudit(settings.getAccounts(), audit.totalBalance), self());
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class PendingAudit {
+        private final ActorRef requester;
+        private int shards;
+        private long totalBalance;
+    }
+
+    /**
+     * Asks for the sum of all balances, answered with a {@link LedgerAudit}.
+     */
+    public static class AuditLedger {
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class LedgerAudit {
+        private final int accounts;
+        private final long totalBalance;
+    }
+
+    private static class FlushBatches {
     }
 }
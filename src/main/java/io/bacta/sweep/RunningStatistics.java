@@ -0,0 +1,41 @@
+package io.bacta.sweep;
+
+/**
+ * Mean and variance of a stream of samples, updated in constant space with Welford's method so that long runs don't
+ * lose precision to a large sum of squares.
+ */
+public class RunningStatistics {
+    private long count;
+    private double mean;
+    private double m2;
+
+    public void add(double sample) {
+        count++;
+
+        final double delta = sample - mean;
+        mean += delta / count;
+        m2 += delta * (sample - mean);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    /**
+     * @return the sample variance, or 0 with fewer than two samples.
+     */
+    public double getVariance() {
+        return count < 2 ? 0 : m2 / (count - 1);
+    }
+
+    /**
+     * @return the half-width of the normal-approximation confidence interval on the mean, for the given z score.
+     */
+    public double getHalfWidth(double z) {
+        return count < 2 ? Double.POSITIVE_INFINITY : z * Math.sqrt(getVariance() / count);
+    }
+}
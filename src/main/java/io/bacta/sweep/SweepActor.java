@@ -0,0 +1,142 @@
+package io.bacta.sweep;
+
+import akka.actor.AbstractActor;
+import akka.actor.ActorRef;
+import akka.actor.Props;
+import io.bacta.sim.BattleSimulationActor;
+import io.bacta.sim.BattleSimulationResult;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Runs every cell of a parameter sweep in one actor system. Like {@link io.bacta.App}, it keeps a window of battles in
+ * flight and starts a new one each time a result comes in, but the window is shared by all cells: new battles go
+ * round-robin to the cells that haven't converged yet, so finished cells hand their share of the cores to the rest.
+ */
+public class SweepActor extends AbstractActor {
+    public static Props props(SweepSettings settings, List<SweepCell> cells, CompletableFuture<List<SweepCell>> completion) {
+        return Props.create(SweepActor.class, () -> new SweepActor(settings, cells, completion));
+    }
+
+    private final SweepSettings settings;
+    private final List<SweepCell> cells;
+    private final CompletableFuture<List<SweepCell>> completion;
+
+    private final Map<ActorRef, SweepCell> battles = new HashMap<>();
+    private int nextCell;
+
+    private long startTimestamp;
+
+    public SweepActor(SweepSettings settings, List<SweepCell> cells, CompletableFuture<List<SweepCell>> completion) {
+        this.settings = settings;
+        this.cells = new ArrayList<>(cells);
+        this.completion = completion;
+    }
+
+    @Override
+    public void postStop() {
+        completion.completeExceptionally(new IllegalStateException("The sweep stopped before all cells completed."));
+    }
+
+    @Override
+    public Receive createReceive() {
+        return receiveBuilder()
+                .match(StartSweep.class, this::start)
+                .match(BattleSimulationResult.class, this::receiveBattleSimulationResult)
+                .build();
+    }
+
+    private void start(StartSweep msg) {
+        System.out.printf("Sweeping %d cells (%d battles at a time, %d-%d per cell) with seed %d...\n",
+                cells.size(),
+                settings.getBattleConcurrency(),
+                settings.getMinBattles(),
+                settings.getMaxBattles(),
+                settings.getMasterSeed());
+
+        startTimestamp = System.currentTimeMillis();
+
+        for (int i = 0; i < Math.max(settings.getBattleConcurrency(), 1); ++i) {
+            if (!startBattleSimulation())
+                break;
+        }
+
+        completeIfDone();
+    }
+
+    /**
+     * @return false when no cell wants another battle.
+     */
+    private boolean startBattleSimulation() {
+        for (int i = 0; i < cells.size(); ++i) {
+            final SweepCell cell = cells.get(nextCell);
+            nextCell = (nextCell + 1) % cells.size();
+
+            if (cell.wantsBattles(settings)) {
+                final int battleId = cell.nextBattleId();
+                final ActorRef battle = context().actorOf(settings.getBattleEngine().props(
+                        battleId,
+                        cell.nextParticipantCount(),
+                        cell.battleSeed(battleId),
+                        cell.getBattleSettings()));
+
+                battles.put(battle, cell);
+                battle.tell(new BattleSimulationActor.StartBattle(), self());
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private void receiveBattleSimulationResult(BattleSimulationResult result) {
+        final SweepCell cell = battles.remove(sender());
+
+        if (cell == null)
+            return;
+
+        cell.accept(result, settings);
+        context().stop(sender());
+
+        startBattleSimulation();
+        completeIfDone();
+    }
+
+    private void completeIfDone() {
+        if (!battles.isEmpty())
+            return;
+
+        for (final SweepCell cell : cells) {
+            if (!cell.isDone(settings))
+                return;
+        }
+
+        System.out.printf("Swept %d cells in %d milliseconds.\n", cells.size(), System.currentTimeMillis() - startTimestamp);
+        print(cells, settings, System.out);
+
+        completion.complete(cells);
+    }
+
+    public static void print(List<SweepCell> cells, SweepSettings settings, PrintStream out) {
+        out.printf("%-80s %8s %22s %22s\n", "Cell", "Battles", "Rounds", "Survivors");
+
+        for (final SweepCell cell : cells) {
+            out.printf("%-80s %8d %10.2f +/- %-7.2f %10.2f +/- %-7.2f %s\n",
+                    cell.getLabel(),
+                    cell.getCompletedBattles(),
+                    cell.getRounds().getMean(),
+                    cell.getRounds().getHalfWidth(settings.getZ()),
+                    cell.getSurvivors().getMean(),
+                    cell.getSurvivors().getHalfWidth(settings.getZ()),
+                    cell.isConverged() ? "converged" : "cap reached");
+        }
+    }
+
+    public static class StartSweep {
+    }
+}
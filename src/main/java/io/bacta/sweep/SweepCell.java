@@ -0,0 +1,94 @@
+package io.bacta.sweep;
+
+import io.bacta.combat.AttackMix;
+import io.bacta.sim.BattleSettings;
+import io.bacta.sim.BattleSimulationResult;
+import io.bacta.sim.RandomStreams;
+import lombok.Getter;
+
+import java.util.SplittableRandom;
+
+/**
+ * One point of a parameter sweep: a participant range and the battle settings to run it with, plus the statistics
+ * gathered for it so far. Owned by the {@link SweepActor}.
+ */
+@Getter
+public class SweepCell {
+    private final int minParticipants;
+    private final int maxParticipants;
+    private final BattleSettings battleSettings;
+
+    //Each cell has its own seed, so adding cells to a sweep doesn't change the battles of the existing ones.
+    private final long seed;
+    private final SplittableRandom rng;
+
+    private final RunningStatistics rounds = new RunningStatistics();
+    private final RunningStatistics survivors = new RunningStatistics();
+
+    private int startedBattles;
+    private int inFlightBattles;
+    private boolean converged;
+
+    public SweepCell(int minParticipants, int maxParticipants, BattleSettings battleSettings, long seed) {
+        this.minParticipants = minParticipants;
+        this.maxParticipants = maxParticipants;
+        this.battleSettings = battleSettings;
+        this.seed = seed;
+        this.rng = new SplittableRandom(seed);
+    }
+
+    public String getLabel() {
+        final AttackMix attackMix = battleSettings.getAttackMix();
+
+        return String.format("participants %d-%d, weapon damage %d-%d, attacks %s",
+                minParticipants,
+                maxParticipants,
+                battleSettings.getMinWeaponDamage(),
+                battleSettings.getMaxWeaponDamage(),
+                attackMix != null ? attackMix : "default");
+    }
+
+    public long getCompletedBattles() {
+        return rounds.getCount();
+    }
+
+    /**
+     * @return true while this cell should have more battles started.
+     */
+    boolean wantsBattles(SweepSettings settings) {
+        return !converged && startedBattles < settings.getMaxBattles();
+    }
+
+    /**
+     * @return true once this cell is finished and nothing of it is still running.
+     */
+    boolean isDone(SweepSettings settings) {
+        return inFlightBattles == 0 && !wantsBattles(settings);
+    }
+
+    int nextBattleId() {
+        inFlightBattles++;
+        return ++startedBattles;
+    }
+
+    long battleSeed(int battleId) {
+        return RandomStreams.battleSeed(seed, battleId);
+    }
+
+    int nextParticipantCount() {
+        return maxParticipants > minParticipants
+                ? rng.nextInt(maxParticipants - minParticipants) + minParticipants
+                : minParticipants;
+    }
+
+    void accept(BattleSimulationResult result, SweepSettings settings) {
+        inFlightBattles--;
+        rounds.add(result.getRounds());
+        survivors.add(result.getWinningParticipants().size());
+
+        //Sticky: results of battles still in flight are folded in, but can't reopen the cell.
+        if (!converged && getCompletedBattles() >= settings.getMinBattles()) {
+            converged = settings.hasConverged(rounds) && settings.hasConverged(survivors);
+        }
+    }
+}
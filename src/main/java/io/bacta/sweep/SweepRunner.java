@@ -0,0 +1,211 @@
+package io.bacta.sweep;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.actor.CoordinatedShutdown;
+import io.bacta.BatchRunner;
+import io.bacta.combat.AttackMix;
+import io.bacta.sim.BattleEngine;
+import io.bacta.sim.BattleSettings;
+import io.bacta.sim.RandomStreams;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs a parameter sweep from the command line: every combination of the given participant ranges, weapon damage
+ * ranges and attack mixes becomes a cell, and each cell runs battles until its confidence intervals on rounds and
+ * survivors are tight enough. Exit codes are the same as {@link BatchRunner}'s.
+ */
+public final class SweepRunner {
+    private static final String USAGE = String.join("\n",
+            "Usage: SweepRunner [options]",
+            "  --participants <ranges>    participant ranges, max exclusive, e.g. 10-30,50-100 (10-30)",
+            "  --weapon-damage <ranges>   weapon damage ranges, max exclusive, e.g. 2-36,10-20 (2-36)",
+            "  --attack-mix <mixes>       comma-separated mixes of name:weight/name:weight, or default (default)",
+            "  --engine <name>            ACTOR or DATA_ORIENTED (ACTOR)",
+            "  --max-rounds <n>           rounds before a battle is called off (1000)",
+            "  --seed <n>                 master seed (random)",
+            "  --concurrency <n>          battles in flight at once across all cells (8 per core)",
+            "  --min-battles <n>          battles per cell before judging convergence (100)",
+            "  --max-battles <n>          battles per cell at most (10000)",
+            "  --relative-tolerance <x>   confidence half-width as a fraction of the mean (0.05)",
+            "  --absolute-tolerance <x>   or as an absolute value, whichever is larger (0.25)",
+            "  --z <x>                    z score of the confidence interval (1.96)",
+            "  --timeout <seconds>        give up after this long (no limit)");
+
+    private SweepRunner() {
+    }
+
+    public static void main(String[] args) {
+        System.exit(run(args));
+    }
+
+    public static int run(String[] args) {
+        final SweepSettings.SweepSettingsBuilder settingsBuilder = SweepSettings.builder()
+                .masterSeed(ThreadLocalRandom.current().nextLong());
+        final BattleSettings.BattleSettingsBuilder battleSettingsBuilder = BattleSettings.builder();
+        List<int[]> participantRanges = Collections.singletonList(new int[]{10, 30});
+        List<int[]> weaponDamageRanges = Collections.singletonList(new int[]{
+                BattleSettings.DEFAULT.getMinWeaponDamage(),
+                BattleSettings.DEFAULT.getMaxWeaponDamage()});
+        List<AttackMix> attackMixes = Collections.singletonList(null);
+        long timeoutSeconds = 0;
+
+        final SweepSettings settings;
+        final List<SweepCell> cells = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < args.length; ++i) {
+                switch (args[i]) {
+                    case "--participants":
+                        participantRanges = parseRanges(value(args, ++i));
+                        break;
+                    case "--weapon-damage":
+                        weaponDamageRanges = parseRanges(value(args, ++i));
+                        break;
+                    case "--attack-mix":
+                        attackMixes = parseAttackMixes(value(args, ++i));
+                        break;
+                    case "--engine":
+                        settingsBuilder.battleEngine(BattleEngine.valueOf(value(args, ++i)));
+                        break;
+                    case "--max-rounds":
+                        battleSettingsBuilder.maxRounds(Integer.parseInt(value(args, ++i)));
+                        break;
+                    case "--seed":
+                        settingsBuilder.masterSeed(Long.parseLong(value(args, ++i)));
+                        break;
+                    case "--concurrency":
+                        settingsBuilder.battleConcurrency(Integer.parseInt(value(args, ++i)));
+                        break;
+                    case "--min-battles":
+                        settingsBuilder.minBattles(Integer.parseInt(value(args, ++i)));
+                        break;
+                    case "--max-battles":
+                        settingsBuilder.maxBattles(Integer.parseInt(value(args, ++i)));
+                        break;
+                    case "--relative-tolerance":
+                        settingsBuilder.relativeTolerance(Double.parseDouble(value(args, ++i)));
+                        break;
+                    case "--absolute-tolerance":
+                        settingsBuilder.absoluteTolerance(Double.parseDouble(value(args, ++i)));
+                        break;
+                    case "--z":
+                        settingsBuilder.z(Double.parseDouble(value(args, ++i)));
+                        break;
+                    case "--timeout":
+                        timeoutSeconds = Long.parseLong(value(args, ++i));
+                        break;
+                    case "--help":
+                        System.out.println(USAGE);
+                        return BatchRunner.EXIT_SUCCESS;
+                    default:
+                        throw new IllegalArgumentException(String.format("Unknown option %s.", args[i]));
+                }
+            }
+
+            settings = settingsBuilder.build();
+            final BattleSettings baseBattleSettings = battleSettingsBuilder.build();
+
+            for (final int[] participants : participantRanges) {
+                for (final int[] weaponDamage : weaponDamageRanges) {
+                    for (final AttackMix attackMix : attackMixes) {
+                        final BattleSettings battleSettings = baseBattleSettings.toBuilder()
+                                .minWeaponDamage(weaponDamage[0])
+                                .maxWeaponDamage(weaponDamage[1])
+                                .attackMix(attackMix)
+                                .build();
+
+                        cells.add(new SweepCell(
+                                participants[0],
+                                participants[1],
+                                battleSettings,
+                                RandomStreams.battleSeed(settings.getMasterSeed(), cells.size())));
+                    }
+                }
+            }
+        } catch (IllegalArgumentException ex) {
+            System.err.println(ex.getMessage());
+            System.err.println(USAGE);
+            return BatchRunner.EXIT_USAGE;
+        }
+
+        return run(settings, cells, timeoutSeconds);
+    }
+
+    public static int run(SweepSettings settings, List<SweepCell> cells, long timeoutSeconds) {
+        final ActorSystem actorSystem = ActorSystem.create("bacta");
+        int exitCode = BatchRunner.EXIT_FAILURE;
+
+        try {
+            final CompletableFuture<List<SweepCell>> completion = new CompletableFuture<>();
+            final ActorRef sweep = actorSystem.actorOf(SweepActor.props(settings, cells, completion), "sweep");
+
+            sweep.tell(new SweepActor.StartSweep(), ActorRef.noSender());
+
+            if (timeoutSeconds > 0) {
+                completion.get(timeoutSeconds, TimeUnit.SECONDS);
+            } else {
+                completion.get();
+            }
+
+            exitCode = BatchRunner.EXIT_SUCCESS;
+        } catch (TimeoutException ex) {
+            System.err.printf("The sweep did not finish within %d seconds.\n", timeoutSeconds);
+        } catch (Exception ex) {
+            System.err.println("The sweep failed.");
+            ex.printStackTrace();
+        } finally {
+            CoordinatedShutdown.get(actorSystem)
+                    .runAll(CoordinatedShutdown.unknownReason())
+                    .toCompletableFuture()
+                    .join();
+        }
+
+        return exitCode;
+    }
+
+    private static List<int[]> parseRanges(String spec) {
+        final List<int[]> ranges = new ArrayList<>();
+
+        for (final String range : spec.split(",")) {
+            final String[] bounds = range.split("-");
+
+            if (bounds.length != 2)
+                throw new IllegalArgumentException(String.format("Expected min-max, got %s.", range));
+
+            final int min = Integer.parseInt(bounds[0]);
+            final int max = Integer.parseInt(bounds[1]);
+
+            if (min < 1 || max < min)
+                throw new IllegalArgumentException(String.format("Invalid range %s.", range));
+
+            ranges.add(new int[]{min, max});
+        }
+
+        return ranges;
+    }
+
+    private static List<AttackMix> parseAttackMixes(String spec) {
+        final List<AttackMix> mixes = new ArrayList<>();
+
+        for (final String mix : spec.split(",")) {
+            mixes.add("default".equals(mix) ? null : AttackMix.parse(mix));
+        }
+
+        return mixes;
+    }
+
+    private static String value(String[] args, int index) {
+        if (index >= args.length)
+            throw new IllegalArgumentException(String.format("%s needs a value.", args[index - 1]));
+
+        return args[index];
+    }
+}
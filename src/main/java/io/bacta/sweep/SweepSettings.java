@@ -0,0 +1,57 @@
+package io.bacta.sweep;
+
+import io.bacta.sim.BattleEngine;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * When a sweep cell counts as converged, and how hard the sweep as a whole runs.
+ */
+@Getter
+@Builder(toBuilder = true)
+public class SweepSettings {
+    /**
+     * No cell is judged before it has this many results; the normal approximation is poor below that.
+     */
+    @Builder.Default
+    private final int minBattles = 100;
+
+    /**
+     * A cell stops here whether or not it converged.
+     */
+    @Builder.Default
+    private final int maxBattles = 10000;
+
+    /**
+     * 1.96 for a 95% confidence interval.
+     */
+    @Builder.Default
+    private final double z = 1.96;
+
+    /**
+     * A metric has converged once its half-width is within this fraction of its mean...
+     */
+    @Builder.Default
+    private final double relativeTolerance = 0.05;
+
+    /**
+     * ...or within this absolute value, so that metrics with a mean near zero can converge too.
+     */
+    @Builder.Default
+    private final double absoluteTolerance = 0.25;
+
+    /**
+     * Battles in flight across all cells at once.
+     */
+    @Builder.Default
+    private final int battleConcurrency = Runtime.getRuntime().availableProcessors() * 8;
+
+    @Builder.Default
+    private final BattleEngine battleEngine = BattleEngine.ACTOR;
+
+    private final long masterSeed;
+
+    public boolean hasConverged(RunningStatistics statistics) {
+        return statistics.getHalfWidth(z) <= Math.max(relativeTolerance * Math.abs(statistics.getMean()), absoluteTolerance);
+    }
+}
@@ -0,0 +1,168 @@
+package io.bacta.tip;
+
+/**
+ * Remembers recently seen idempotency keys so that a retried tip isn't applied twice. Keys belong to the sending
+ * account, so the same key from two accounts is two different keys.
+ * <p>
+ * Memory is fixed when the cache is created: entries live in a ring in the order they were added, and an open
+ * addressing table with linear probing maps each key to its ring slot. A key is forgotten once it is older than the
+ * time to live, or when the ring is full and room is needed for a new one, whichever comes first. Both evict from the
+ * oldest end, so every operation is O(1) amortized and nothing is boxed.
+ */
+public class IdempotencyCache {
+    private final int capacity;
+    private final long ttlMillis;
+
+    //Ring of entries, oldest at head.
+    private final int[] accounts;
+    private final long[] keys;
+    private final long[] addedAt;
+    private int head;
+    private int size;
+
+    //Ring slot + 1 of each entry, 0 for an empty bucket. At most half full, so probe sequences stay short.
+    private final int[] table;
+    private final int mask;
+
+    public IdempotencyCache(int capacity, long ttlMillis) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("An idempotency cache needs room for at least one key.");
+
+        this.capacity = capacity;
+        this.ttlMillis = ttlMillis;
+
+        this.accounts = new int[capacity];
+        this.keys = new long[capacity];
+        this.addedAt = new long[capacity];
+
+        final int buckets = Integer.highestOneBit(capacity * 2 - 1) << 1;
+        this.table = new int[buckets];
+        this.mask = buckets - 1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(int account, long key, long nowMillis) {
+        expire(nowMillis);
+        return find(account, key) >= 0;
+    }
+
+    /**
+     * Adds the key unless it is already known.
+     *
+     * @return false if the key was already known.
+     */
+    public boolean add(int account, long key, long nowMillis) {
+        expire(nowMillis);
+
+        if (find(account, key) >= 0)
+            return false;
+
+        if (size == capacity) {
+            evictOldest();
+        }
+
+        final int slot = (head + size) % capacity;
+        accounts[slot] = account;
+        keys[slot] = key;
+        addedAt[slot] = nowMillis;
+        size++;
+
+        int bucket = bucketOf(account, key);
+        while (table[bucket] != 0) {
+            bucket = (bucket + 1) & mask;
+        }
+        table[bucket] = slot + 1;
+
+        return true;
+    }
+
+    /**
+     * Told about each key a cache remembers.
+     */
+    public interface KeyVisitor {
+        void visit(int account, long key, long addedAtMillis);
+    }
+
+    /**
+     * Visits every key that hasn't expired by {@code nowMillis}, oldest first.
+     */
+    public void forEach(long nowMillis, KeyVisitor visitor) {
+        expire(nowMillis);
+
+        for (int i = 0; i < size; ++i) {
+            final int slot = (head + i) % capacity;
+            visitor.visit(accounts[slot], keys[slot], addedAt[slot]);
+        }
+    }
+
+    private void expire(long nowMillis) {
+        while (size > 0 && nowMillis - addedAt[head] >= ttlMillis) {
+            evictOldest();
+        }
+    }
+
+    private void evictOldest() {
+        remove(find(accounts[head], keys[head]));
+        head = (head + 1) % capacity;
+        size--;
+    }
+
+    /**
+     * @return the bucket holding the key, or -1.
+     */
+    private int find(int account, long key) {
+        int bucket = bucketOf(account, key);
+
+        while (table[bucket] != 0) {
+            final int slot = table[bucket] - 1;
+
+            if (keys[slot] == key && accounts[slot] == account)
+                return bucket;
+
+            bucket = (bucket + 1) & mask;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Empties a bucket and shifts later entries of the same probe run back into the gap, so lookups never stop at a
+     * hole that used to be occupied. No tombstones, so the table never degrades.
+     */
+    private void remove(int bucket) {
+        int gap = bucket;
+        int next = bucket;
+
+        table[gap] = 0;
+
+        while (true) {
+            next = (next + 1) & mask;
+
+            if (table[next] == 0)
+                return;
+
+            final int slot = table[next] - 1;
+            final int home = bucketOf(accounts[slot], keys[slot]);
+
+            //The entry can move into the gap unless its home lies cyclically after the gap, up to where it sits.
+            final boolean staysPut = gap <= next
+                    ? gap < home && home <= next
+                    : gap < home || home <= next;
+
+            if (!staysPut) {
+                table[gap] = table[next];
+                table[next] = 0;
+                gap = next;
+            }
+        }
+    }
+
+    private int bucketOf(int account, long key) {
+        long h = key * 0x9e3779b97f4a7c15L + account;
+        h = (h ^ (h >>> 32)) * 0xd6e8feb86659fd93L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,76 @@
+package io.bacta.tip;
+
+/**
+ * A fixed-size log-linear histogram of latencies in nanoseconds. Every power of two is split into 32 buckets, so a
+ * recorded value is reported with at most about 3% error, in 15 KB no matter how many values are recorded.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    //Values below 2 * SUB_BUCKETS get a bucket each; above that, every power of two gets SUB_BUCKETS of them.
+    private static final int LINEAR_BUCKETS = 2 * SUB_BUCKETS;
+    private static final int BUCKETS = LINEAR_BUCKETS + (63 - SUB_BUCKET_BITS - 1) * SUB_BUCKETS;
+
+    private final long[] counts = new long[BUCKETS];
+    private long count;
+    private long max;
+
+    public void record(long nanos) {
+        final long value = Math.max(nanos, 0);
+
+        counts[indexOf(value)]++;
+        count++;
+        max = Math.max(max, value);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * @param percentile between 0 and 100.
+     * @return the upper bound of the bucket holding that percentile, capped at the largest recorded value.
+     */
+    public long getPercentile(double percentile) {
+        if (count == 0)
+            return 0;
+
+        final long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+        long seen = 0;
+
+        for (int index = 0; index < BUCKETS; ++index) {
+            seen += counts[index];
+
+            if (seen >= rank)
+                return Math.min(upperBoundOf(index), max);
+        }
+
+        return max;
+    }
+
+    private static int indexOf(long value) {
+        if (value < LINEAR_BUCKETS)
+            return (int) value;
+
+        final int exponent = 63 - Long.numberOfLeadingZeros(value);
+        final int shift = exponent - SUB_BUCKET_BITS;
+        final int subBucket = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+
+        return LINEAR_BUCKETS + (shift - 1) * SUB_BUCKETS + subBucket;
+    }
+
+    private static long upperBoundOf(int index) {
+        if (index < LINEAR_BUCKETS)
+            return index;
+
+        final int shift = (index - LINEAR_BUCKETS) / SUB_BUCKETS + 1;
+        final long subBucket = (index - LINEAR_BUCKETS) % SUB_BUCKETS;
+
+        return ((SUB_BUCKETS + subBucket + 1) << shift) - 1;
+    }
+}
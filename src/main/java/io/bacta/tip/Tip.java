@@ -0,0 +1,34 @@
+package io.bacta.tip;
+
+import lombok.Getter;
+
+/**
+ * Asks the ledger to move {@code amount} credits from one account to another. The sender gets the outcome back in a
+ * {@link TipResults}, under the same tip id.
+ * <p>
+ * A client that may send the same tip again, say after a timeout, gives it an idempotency key. Keys belong to the
+ * sending account; while the ledger remembers a key, another tip with it is answered {@link TipStatus#DUPLICATE}
+ * instead of being applied.
+ */
+@Getter
+public class Tip {
+    public static final long NO_IDEMPOTENCY_KEY = 0;
+
+    private final long tipId;
+    private final int from;
+    private final int to;
+    private final long amount;
+    private final long idempotencyKey;
+
+    public Tip(long tipId, int from, int to, long amount) {
+        this(tipId, from, to, amount, NO_IDEMPOTENCY_KEY);
+    }
+
+    public Tip(long tipId, int from, int to, long amount, long idempotencyKey) {
+        this.tipId = tipId;
+        this.from = from;
+        this.to = to;
+        this.amount = amount;
+        this.idempotencyKey = idempotencyKey;
+    }
+}
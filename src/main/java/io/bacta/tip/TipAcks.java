@@ -0,0 +1,49 @@
+package io.bacta.tip;
+
+import akka.actor.ActorRef;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects tip outcomes while a batch is processed and sends each client its outcomes as one {@link TipResults}.
+ * There are few clients per batch, so they are looked up linearly.
+ */
+class TipAcks {
+    private final int capacity;
+    private final List<ActorRef> clients = new ArrayList<>();
+    private final List<TipResults> results = new ArrayList<>();
+
+    TipAcks(int capacity) {
+        this.capacity = capacity;
+    }
+
+    void add(ActorRef client, long tipId, TipStatus status, ActorRef sender) {
+        int index = clients.indexOf(client);
+
+        if (index < 0) {
+            index = clients.size();
+            clients.add(client);
+            results.add(new TipResults(capacity));
+        }
+
+        final TipResults clientResults = results.get(index);
+        clientResults.add(tipId, status);
+
+        if (clientResults.isFull()) {
+            client.tell(clientResults, sender);
+            results.set(index, new TipResults(capacity));
+        }
+    }
+
+    void flush(ActorRef sender) {
+        for (int i = 0; i < clients.size(); ++i) {
+            if (results.get(i).size() > 0) {
+                clients.get(i).tell(results.get(i), sender);
+            }
+        }
+
+        clients.clear();
+        results.clear();
+    }
+}
@@ -0,0 +1,226 @@
+package io.bacta.tip;
+
+import akka.actor.AbstractActor;
+import akka.actor.ActorRef;
+import akka.actor.Props;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Owns the balances of one partition of the accounts. The shard is the only writer of its balances, so a transfer
+ * needs no locks: the sender's shard debits it and hands it on to the recipient's shard, which credits it and
+ * acknowledges the tip. A credit can't fail, so once the debit succeeded the tip is certain to complete.
+ * <p>
+ * With a {@link TipWriteAheadLog}, the debited tips of a batch are only passed on once the log has made them durable.
+ * A shard never spends credits that aren't durable yet, so the log always holds every tip a later one depended on.
+ * <p>
+ * Idempotency keys are checked here, in the sender's shard, before the debit. A duplicate is answered only once the
+ * tip it duplicates is durable, so a client never learns about a tip that could still be lost.
+ */
+public class TipLedgerShard extends AbstractActor {
+    /**
+     * @param balances         the starting balance of each account in this shard, by slot. Owned by the shard from now
+     *                         on, like the cache.
+     * @param idempotencyCache keys of the tips already accepted from this shard's accounts.
+     * @param log              where debits are made durable, or null.
+     */
+    public static Props props(int shard, TipSettings settings, long[] balances, IdempotencyCache idempotencyCache, TipWriteAheadLog log) {
+        return Props.create(TipLedgerShard.class, () -> new TipLedgerShard(shard, settings, balances, idempotencyCache, log));
+    }
+
+    private final int shard;
+    private final TipSettings settings;
+    private final long[] balances;
+    private final IdempotencyCache idempotencyCache;
+    private final TipWriteAheadLog log;
+    private final TipAcks acks;
+
+    private List<ActorRef> shards;
+
+    public TipLedgerShard(int shard, TipSettings settings, long[] balances, IdempotencyCache idempotencyCache, TipWriteAheadLog log) {
+        this.shard = shard;
+        this.settings = settings;
+        this.balances = balances;
+        this.idempotencyCache = idempotencyCache;
+        this.log = log;
+        this.acks = new TipAcks(settings.getMaxBatchSize());
+    }
+
+    @Override
+    public Receive createReceive() {
+        return receiveBuilder()
+                .match(Shards.class, this::shards)
+                .match(Debit.class, this::debit)
+                .match(Credit.class, this::credit)
+                .match(LogFailed.class, this::logFailed)
+                .match(AuditShard.class, this::audit)
+                .build();
+    }
+
+    private void shards(Shards msg) {
+        shards = msg.getShards();
+    }
+
+    private void debit(Debit msg) {
+        final TransferBatch batch = msg.getBatch();
+        final TransferBatch[] credits = new TransferBatch[shards.size()];
+        final TipAcks duplicates = log != null ? new TipAcks(batch.size()) : acks;
+        final long now = System.currentTimeMillis();
+
+        for (int i = 0; i < batch.size(); ++i) {
+            final int from = batch.getFrom(i);
+            final long idempotencyKey = batch.getIdempotencyKey(i);
+
+            if (idempotencyKey != Tip.NO_IDEMPOTENCY_KEY && idempotencyCache.contains(from, idempotencyKey, now)) {
+                duplicates.add(batch.getReplyTo(i), batch.getTipId(i), TipStatus.DUPLICATE, self());
+                continue;
+            }
+
+            final int slot = settings.slotOf(from);
+            final long amount = batch.getAmount(i);
+
+            if (balances[slot] < amount) {
+                acks.add(batch.getReplyTo(i), batch.getTipId(i), TipStatus.INSUFFICIENT_FUNDS, self());
+                continue;
+            }
+
+            balances[slot] -= amount;
+
+            if (idempotencyKey != Tip.NO_IDEMPOTENCY_KEY) {
+                idempotencyCache.add(from, idempotencyKey, now);
+            }
+
+            final int target = settings.shardOf(batch.getTo(i));
+
+            if (credits[target] == null) {
+                credits[target] = new TransferBatch(batch.size());
+            }
+
+            credits[target].add(batch, i);
+        }
+
+        if (log == null) {
+            sendCredits(credits);
+        } else {
+            //Commits complete in order, so whatever these duplicate is durable by the time this is.
+            log.append(credits, new CreditWhenDurable(self(), shards, credits, duplicates));
+        }
+
+        acks.flush(self());
+    }
+
+    private void sendCredits(TransferBatch[] credits) {
+        for (int target = 0; target < credits.length; ++target) {
+            if (credits[target] == null)
+                continue;
+
+            if (target == shard) {
+                applyCredits(credits[target]);
+            } else {
+                shards.get(target).tell(new Credit(credits[target]), self());
+            }
+        }
+    }
+
+    /**
+     * Runs on the log's writer thread, so it only sends messages, and the shard's own credits go through its mailbox
+     * too. Static so that it can't touch the actor's state by accident.
+     */
+    @RequiredArgsConstructor
+    private static class CreditWhenDurable implements TipWriteAheadLog.Commit {
+        private final ActorRef self;
+        private final List<ActorRef> shards;
+        private final TransferBatch[] credits;
+        private final TipAcks duplicates;
+
+        @Override
+        public void durable() {
+            for (int target = 0; target < credits.length; ++target) {
+                if (credits[target] != null) {
+                    shards.get(target).tell(new Credit(credits[target]), self);
+                }
+            }
+
+            duplicates.flush(self);
+        }
+
+        @Override
+        public void failed(IOException ex) {
+            self.tell(new LogFailed(ex), self);
+        }
+    }
+
+    /**
+     * The debits are applied here but may or may not be in the log, so this shard's balances can't be trusted any more.
+     * Failing hands the problem to the {@link io.bacta.sim.TipSimulationActor}, which restarts the ledger from the log.
+     */
+    private void logFailed(LogFailed msg) {
+        throw new IllegalStateException("The tip write-ahead log failed.", msg.getCause());
+    }
+
+    private void credit(Credit msg) {
+        applyCredits(msg.getBatch());
+        acks.flush(self());
+    }
+
+    private void applyCredits(TransferBatch batch) {
+        for (int i = 0; i < batch.size(); ++i) {
+            balances[settings.slotOf(batch.getTo(i))] += batch.getAmount(i);
+            acks.add(batch.getReplyTo(i), batch.getTipId(i), TipStatus.ACCEPTED, self());
+        }
+    }
+
+    private void audit(AuditShard msg) {
+        long total = 0;
+
+        for (final long balance : balances) {
+            total += balance;
+        }
+
+        sender().tell(new ShardAudit(msg.getAuditId(), shard, total), self());
+    }
+
+    /**
+     * Tells a shard where the other shards are. Must be the first message it receives.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static class Shards {
+        private final List<ActorRef> shards;
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class Debit {
+        private final TransferBatch batch;
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    static class Credit {
+        private final TransferBatch batch;
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    private static class LogFailed {
+        private final IOException cause;
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class AuditShard {
+        private final long auditId;
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class ShardAudit {
+        private final long auditId;
+        private final int shard;
+        private final long totalBalance;
+    }
+}
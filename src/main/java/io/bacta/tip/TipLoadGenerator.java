@@ -0,0 +1,153 @@
+package io.bacta.tip;
+
+import akka.actor.AbstractActor;
+import akka.actor.ActorRef;
+import akka.actor.Props;
+import io.bacta.sim.TipSimulationActor;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Drives a tip ledger with random tips between random accounts, keeping a window of them in flight, and measures the
+ * time from sending each tip to receiving its result. Once every tip is answered it audits the ledger and completes
+ * the report.
+ */
+public class TipLoadGenerator extends AbstractActor {
+    public static Props props(ActorRef ledger, TipSettings ledgerSettings, TipLoadSettings settings, CompletableFuture<TipLoadReport> completion) {
+        return Props.create(TipLoadGenerator.class, () -> new TipLoadGenerator(ledger, ledgerSettings, settings, completion));
+    }
+
+    private final ActorRef ledger;
+    private final TipSettings ledgerSettings;
+    private final TipLoadSettings settings;
+    private final CompletableFuture<TipLoadReport> completion;
+    private final SplittableRandom rng;
+
+    //Send times of the tips in flight, by tip id modulo the capacity. A tip is only sent once its slot is free, so a
+    //slow tip holds back the ones that would reuse its slot instead of being overwritten.
+    private final long[] sentNanos;
+    private final boolean[] inFlight;
+    private final int mask;
+
+    private final LatencyHistogram latencies = new LatencyHistogram();
+    private final long[] statusCounts = new long[TipStatus.values().length];
+
+    private long nextTipId;
+    private Tip retry;
+    private int outstanding;
+    private long answered;
+
+    private long startNanos;
+    private long finishNanos;
+
+    public TipLoadGenerator(ActorRef ledger, TipSettings ledgerSettings, TipLoadSettings settings, CompletableFuture<TipLoadReport> completion) {
+        this.ledger = ledger;
+        this.ledgerSettings = ledgerSettings;
+        this.settings = settings;
+        this.completion = completion;
+        this.rng = new SplittableRandom(settings.getSeed());
+
+        final int capacity = Integer.highestOneBit(Math.max(settings.getWindow(), 1) * 2 - 1) * 2;
+        this.sentNanos = new long[capacity];
+        this.inFlight = new boolean[capacity];
+        this.mask = capacity - 1;
+    }
+
+    @Override
+    public void postStop() {
+        completion.completeExceptionally(new IllegalStateException("The tip load generator stopped before it finished."));
+    }
+
+    @Override
+    public Receive createReceive() {
+        return receiveBuilder()
+                .match(StartLoad.class, this::start)
+                .match(TipResults.class, this::tipResults)
+                .match(TipSimulationActor.LedgerAudit.class, this::ledgerAudit)
+                .build();
+    }
+
+    private void start(StartLoad msg) {
+        startNanos = System.nanoTime();
+        sendTips();
+        finishIfDone();
+    }
+
+    private void sendTips() {
+        while (nextTipId < settings.getTotalTips() && outstanding < settings.getWindow()) {
+            final int slot = (int) nextTipId & mask;
+
+            if (inFlight[slot])
+                return;
+
+            final Tip tip;
+
+            if (retry != null) {
+                tip = new Tip(nextTipId, retry.getFrom(), retry.getTo(), retry.getAmount(), retry.getIdempotencyKey());
+                retry = null;
+            } else {
+                final int accounts = ledgerSettings.getAccounts();
+                final int from = rng.nextInt(accounts);
+                //Any account but the sender.
+                final int to = (from + 1 + rng.nextInt(accounts - 1)) % accounts;
+                final long amount = 1 + rng.nextLong(settings.getMaxAmount());
+
+                //Tip ids start at 0, keys must not.
+                tip = new Tip(nextTipId, from, to, amount, nextTipId + 1);
+
+                if (settings.getRetryRate() > 0 && rng.nextDouble() < settings.getRetryRate()) {
+                    retry = tip;
+                }
+            }
+
+            inFlight[slot] = true;
+            sentNanos[slot] = System.nanoTime();
+            outstanding++;
+            nextTipId++;
+
+            ledger.tell(tip, self());
+        }
+    }
+
+    private void tipResults(TipResults results) {
+        final long now = System.nanoTime();
+
+        for (int i = 0; i < results.size(); ++i) {
+            final int slot = (int) results.getTipId(i) & mask;
+
+            latencies.record(now - sentNanos[slot]);
+            statusCounts[results.getStatus(i).ordinal()]++;
+            inFlight[slot] = false;
+        }
+
+        outstanding -= results.size();
+        answered += results.size();
+
+        sendTips();
+        finishIfDone();
+    }
+
+    private void finishIfDone() {
+        if (answered < settings.getTotalTips())
+            return;
+
+        finishNanos = System.nanoTime();
+        ledger.tell(new TipSimulationActor.AuditLedger(), self());
+    }
+
+    private void ledgerAudit(TipSimulationActor.LedgerAudit msg) {
+        completion.complete(new TipLoadReport(
+                answered,
+                statusCounts,
+                finishNanos - startNanos,
+                latencies,
+                ledgerSettings.getAccounts() * ledgerSettings.getInitialBalance(),
+                msg.getTotalBalance()));
+
+        context().stop(self());
+    }
+
+    public static class StartLoad {
+    }
+}
@@ -0,0 +1,55 @@
+package io.bacta.tip;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+@Getter
+@RequiredArgsConstructor
+public class TipLoadReport {
+    private final long tips;
+    private final long[] statusCounts;
+    private final long elapsedNanos;
+    private final LatencyHistogram latencies;
+    private final long expectedTotalBalance;
+    private final long auditedTotalBalance;
+
+    public long getStatusCount(TipStatus status) {
+        return statusCounts[status.ordinal()];
+    }
+
+    public double getTipsPerSecond() {
+        return elapsedNanos == 0 ? 0 : tips * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * @return true if no credits were created or lost.
+     */
+    public boolean isBalanced() {
+        return expectedTotalBalance == auditedTotalBalance;
+    }
+
+    public void print(PrintStream out) {
+        out.printf("%d tips in %d milliseconds, %.0f tips/sec.\n",
+                tips,
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                getTipsPerSecond());
+
+        for (final TipStatus status : TipStatus.values()) {
+            out.printf("  %-20s %d\n", status, getStatusCount(status));
+        }
+
+        out.printf("Latency: p50 %d us, p99 %d us, p99.9 %d us, max %d us\n",
+                TimeUnit.NANOSECONDS.toMicros(latencies.getPercentile(50)),
+                TimeUnit.NANOSECONDS.toMicros(latencies.getPercentile(99)),
+                TimeUnit.NANOSECONDS.toMicros(latencies.getPercentile(99.9)),
+                TimeUnit.NANOSECONDS.toMicros(latencies.getMax()));
+
+        out.printf("Ledger total %d, expected %d%s\n",
+                auditedTotalBalance,
+                expectedTotalBalance,
+                isBalanced() ? "." : " - CREDITS WERE CREATED OR LOST.");
+    }
+}
@@ -0,0 +1,173 @@
+package io.bacta.tip;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.actor.CoordinatedShutdown;
+import io.bacta.BatchRunner;
+import io.bacta.sim.TipSimulationActor;
+
+import java.nio.file.Paths;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs the tip load generator against a fresh ledger and prints tips/sec and latency percentiles. Exit codes are the
+ * same as {@link BatchRunner}'s; a ledger whose total changed counts as a failure.
+ */
+public final class TipLoadRunner {
+    private static final String USAGE = String.join("\n",
+            "Usage: TipLoadRunner [options]",
+            "  --tips <n>              tips to send (1000000)",
+            "  --window <n>            tips in flight at once (8192)",
+            "  --accounts <n>          accounts in the ledger (10000)",
+            "  --initial-balance <n>   credits every account starts with (1000)",
+            "  --max-amount <n>        largest tip (100)",
+            "  --retry-rate <x>        fraction of tips sent twice with the same idempotency key (0)",
+            "  --shards <n>            ledger shards (1 per core)",
+            "  --batch-size <n>        most tips per shard message (256)",
+            "  --wal <file>            make tips durable in a write-ahead log, recovering from it first",
+            "  --group-records <n>     most tips per group commit (4096)",
+            "  --group-micros <n>      longest wait for a group commit to fill up (500)",
+            "  --checkpoint-mb <n>     checkpoint the write-ahead log after this many MB of tips, 0 for never (64)",
+            "  --seed <n>              seed (random)",
+            "  --timeout <seconds>     give up after this long (no limit)");
+
+    private TipLoadRunner() {
+    }
+
+    public static void main(String[] args) {
+        System.exit(run(args));
+    }
+
+    public static int run(String[] args) {
+        final TipSettings.TipSettingsBuilder ledgerBuilder = TipSettings.builder();
+        final TipLoadSettings.TipLoadSettingsBuilder loadBuilder = TipLoadSettings.builder()
+                .seed(ThreadLocalRandom.current().nextLong());
+        long timeoutSeconds = 0;
+
+        final TipSettings ledgerSettings;
+        final TipLoadSettings loadSettings;
+
+        try {
+            for (int i = 0; i < args.length; ++i) {
+                switch (args[i]) {
+                    case "--tips":
+                        loadBuilder.totalTips(Integer.parseInt(value(args, ++i)));
+                        break;
+                    case "--window":
+                        loadBuilder.window(Integer.parseInt(value(args, ++i)));
+                        break;
+                    case "--accounts":
+                        ledgerBuilder.accounts(Integer.parseInt(value(args, ++i)));
+                        break;
+                    case "--initial-balance":
+                        ledgerBuilder.initialBalance(Long.parseLong(value(args, ++i)));
+                        break;
+                    case "--max-amount":
+                        loadBuilder.maxAmount(Long.parseLong(value(args, ++i)));
+                        break;
+                    case "--retry-rate":
+                        loadBuilder.retryRate(Double.parseDouble(value(args, ++i)));
+                        break;
+                    case "--shards":
+                        ledgerBuilder.shards(Integer.parseInt(value(args, ++i)));
+                        break;
+                    case "--batch-size":
+                        ledgerBuilder.maxBatchSize(Integer.parseInt(value(args, ++i)));
+                        break;
+                    case "--wal":
+                        ledgerBuilder.writeAheadLog(Paths.get(value(args, ++i)));
+                        break;
+                    case "--group-records":
+                        ledgerBuilder.groupCommitRecords(Integer.parseInt(value(args, ++i)));
+                        break;
+                    case "--group-micros":
+                        ledgerBuilder.groupCommitMicros(Long.parseLong(value(args, ++i)));
+                        break;
+                    case "--checkpoint-mb":
+                        ledgerBuilder.checkpointBytes(Long.parseLong(value(args, ++i)) * 1024 * 1024);
+                        break;
+                    case "--seed":
+                        loadBuilder.seed(Long.parseLong(value(args, ++i)));
+                        break;
+                    case "--timeout":
+                        timeoutSeconds = Long.parseLong(value(args, ++i));
+                        break;
+                    case "--help":
+                        System.out.println(USAGE);
+                        return BatchRunner.EXIT_SUCCESS;
+                    default:
+                        throw new IllegalArgumentException(String.format("Unknown option %s.", args[i]));
+                }
+            }
+
+            ledgerSettings = ledgerBuilder.build();
+            loadSettings = loadBuilder.build();
+
+            if (ledgerSettings.getAccounts() < 2 || ledgerSettings.getShards() < 1 || ledgerSettings.getMaxBatchSize() < 1)
+                throw new IllegalArgumentException("Need at least 2 accounts, 1 shard and a batch size of 1.");
+        } catch (IllegalArgumentException ex) {
+            System.err.println(ex.getMessage());
+            System.err.println(USAGE);
+            return BatchRunner.EXIT_USAGE;
+        }
+
+        return run(ledgerSettings, loadSettings, timeoutSeconds);
+    }
+
+    public static int run(TipSettings ledgerSettings, TipLoadSettings loadSettings, long timeoutSeconds) {
+        final ActorSystem actorSystem = ActorSystem.create("bacta");
+        int exitCode = BatchRunner.EXIT_FAILURE;
+
+        try {
+            System.out.printf("Sending %d tips (%d at a time) between %d accounts on %d shards...\n",
+                    loadSettings.getTotalTips(),
+                    loadSettings.getWindow(),
+                    ledgerSettings.getAccounts(),
+                    ledgerSettings.getShards());
+
+            if (ledgerSettings.getWriteAheadLog() != null) {
+                System.out.printf("Logging tips to %s.\n", ledgerSettings.getWriteAheadLog().toAbsolutePath());
+            }
+
+            final CompletableFuture<TipLoadReport> completion = new CompletableFuture<>();
+            final ActorRef ledger = actorSystem.actorOf(TipSimulationActor.props(ledgerSettings), "tips");
+            final ActorRef load = actorSystem.actorOf(
+                    TipLoadGenerator.props(ledger, ledgerSettings, loadSettings, completion),
+                    "tip-load");
+
+            load.tell(new TipLoadGenerator.StartLoad(), ActorRef.noSender());
+
+            final TipLoadReport report = timeoutSeconds > 0
+                    ? completion.get(timeoutSeconds, TimeUnit.SECONDS)
+                    : completion.get();
+
+            report.print(System.out);
+
+            if (report.isBalanced()) {
+                exitCode = BatchRunner.EXIT_SUCCESS;
+            }
+        } catch (TimeoutException ex) {
+            System.err.printf("The tip load did not finish within %d seconds.\n", timeoutSeconds);
+        } catch (Exception ex) {
+            System.err.println("The tip load failed.");
+            ex.printStackTrace();
+        } finally {
+            CoordinatedShutdown.get(actorSystem)
+                    .runAll(CoordinatedShutdown.unknownReason())
+                    .toCompletableFuture()
+                    .join();
+        }
+
+        return exitCode;
+    }
+
+    private static String value(String[] args, int index) {
+        if (index >= args.length)
+            throw new IllegalArgumentException(String.format("%s needs a value.", args[index - 1]));
+
+        return args[index];
+    }
+}
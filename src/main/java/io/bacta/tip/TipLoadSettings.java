@@ -0,0 +1,29 @@
+package io.bacta.tip;
+
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder(toBuilder = true)
+public class TipLoadSettings {
+    @Builder.Default
+    private final int totalTips = 1000000;
+
+    /**
+     * Tips sent but not yet answered, at most.
+     */
+    @Builder.Default
+    private final int window = 8192;
+
+    @Builder.Default
+    private final long maxAmount = 100;
+
+    /**
+     * The fraction of tips that are sent a second time right away with the same idempotency key, like a client retrying
+     * aggressively. Retries count towards {@link #totalTips}.
+     */
+    @Builder.Default
+    private final double retryRate = 0;
+
+    private final long seed;
+}
@@ -0,0 +1,44 @@
+package io.bacta.tip;
+
+/**
+ * Outcomes of one or more tips sent by the same client. The ledger answers in batches so that a busy client isn't
+ * sent one message per tip.
+ */
+public class TipResults {
+    private final long[] tipIds;
+    private final TipStatus[] statuses;
+    private int size;
+
+    public TipResults(int capacity) {
+        this.tipIds = new long[capacity];
+        this.statuses = new TipStatus[capacity];
+    }
+
+    public static TipResults of(long tipId, TipStatus status) {
+        final TipResults results = new TipResults(1);
+        results.add(tipId, status);
+        return results;
+    }
+
+    void add(long tipId, TipStatus status) {
+        tipIds[size] = tipId;
+        statuses[size] = status;
+        size++;
+    }
+
+    boolean isFull() {
+        return size == tipIds.length;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getTipId(int index) {
+        return tipIds[index];
+    }
+
+    public TipStatus getStatus(int index) {
+        return statuses[index];
+    }
+}
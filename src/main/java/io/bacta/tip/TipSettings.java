@@ -0,0 +1,88 @@
+package io.bacta.tip;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.nio.file.Path;
+
+/**
+ * The shape of the tip ledger. Accounts are numbered from 0 and dealt round-robin over the shards, so account
+ * {@code a} lives in shard {@code a % shards}, slot {@code a / shards}.
+ */
+@Getter
+@Builder(toBuilder = true)
+public class TipSettings {
+    public static final TipSettings DEFAULT = TipSettings.builder().build();
+
+    @Builder.Default
+    private final int accounts = 10000;
+
+    @Builder.Default
+    private final long initialBalance = 1000;
+
+    /**
+     * Each shard is a single actor that owns its accounts outright, so this is how many cores the ledger can use.
+     */
+    @Builder.Default
+    private final int shards = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Tips waiting for the same shard are sent to it together, up to this many per message.
+     */
+    @Builder.Default
+    private final int maxBatchSize = 256;
+
+    /**
+     * Idempotency keys each shard remembers at most. The cache takes about 28 bytes per key, allocated up front.
+     */
+    @Builder.Default
+    private final int idempotencyKeysPerShard = 65536;
+
+    /**
+     * How long an idempotency key is remembered, at most. Retries after that are applied as new tips.
+     */
+    @Builder.Default
+    private final long idempotencyTtlMillis = 10 * 60 * 1000;
+
+    /**
+     * Where the {@link TipWriteAheadLog} lives, or null to keep the ledger in memory only. With a log, a tip is only
+     * acknowledged once it is durable, and a restarted ledger picks up the balances it left off with.
+     */
+    private final Path writeAheadLog;
+
+    /**
+     * A group commit is written once it has this many tips...
+     */
+    @Builder.Default
+    private final int groupCommitRecords = 4096;
+
+    /**
+     * ...or this long after its first tip was queued, whichever comes first.
+     */
+    @Builder.Default
+    private final long groupCommitMicros = 500;
+
+    /**
+     * Once the write-ahead log has grown by this many bytes since its last checkpoint, it is replaced by a checkpoint
+     * of the balances and the idempotency keys still remembered, so neither its size nor the replay on startup grows
+     * with the number of tips ever sent. 0 never checkpoints.
+     */
+    @Builder.Default
+    private final long checkpointBytes = 64L * 1024 * 1024;
+
+    public int shardOf(int account) {
+        return account % shards;
+    }
+
+    public int slotOf(int account) {
+        return account / shards;
+    }
+
+    public int accountsInShard(int shard) {
+        return (accounts - shard + shards - 1) / shards;
+    }
+
+    public boolean isAccount(int account) {
+        return account >= 0 && account < accounts;
+    }
+}
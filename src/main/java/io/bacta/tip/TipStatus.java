@@ -0,0 +1,18 @@
+package io.bacta.tip;
+
+public enum TipStatus {
+    /**
+     * The credits have left the sender's account and arrived in the recipient's.
+     */
+    ACCEPTED,
+    INSUFFICIENT_FUNDS,
+    /**
+     * A tip from the same account with the same idempotency key was already accepted; nothing was applied again. Only
+     * accepted tips are remembered, so a retry of a rejected tip is judged afresh.
+     */
+    DUPLICATE,
+    /**
+     * Unknown account, a tip to oneself or an amount that isn't positive.
+     */
+    INVALID
+}
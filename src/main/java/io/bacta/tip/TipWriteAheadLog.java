@@ -0,0 +1,625 @@
+package io.bacta.tip;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * A write-ahead log of debited tips, so that the ledger survives a crash. Each record is a tip that its sender's shard
+ * has accepted: once the record is durable, the ledger may credit the recipient and acknowledge the tip, and replaying
+ * every record on top of the initial balances gives back the balances of all acknowledged tips.
+ * <p>
+ * Records are written by one thread in group commits: it waits for up to {@link TipSettings#getGroupCommitRecords()}
+ * records or {@link TipSettings#getGroupCommitMicros()} microseconds after the first one, writes them as one frame
+ * and forces the file once for the whole group.
+ * <p>
+ * The file starts with an 8 byte header, the magic number and a format version, followed by a checkpoint and then
+ * the frames committed since. The checkpoint is the account count, every balance, the idempotency keys still
+ * remembered (sender, key and commit time, 20 bytes each) and a CRC32 of all that. Each frame is the record count,
+ * the wall clock time of the commit in milliseconds, the records (tip id, sender, recipient, amount and idempotency
+ * key, 32 bytes) and a CRC32 of all that. Opening the log replays every complete frame on top of the checkpoint and
+ * cuts off a torn one at the end.
+ * <p>
+ * After {@link TipSettings#getCheckpointBytes()} of frames the writer thread writes a new file holding only a
+ * checkpoint of the current state, forces it and renames it over the log. Until the rename the old log is intact, so
+ * a crash at any point recovers either from the old log or from the new checkpoint. Groups queued in the meantime
+ * wait for the checkpoint to finish. A new log is created the same way, so a log never starts with a partial
+ * checkpoint. The keys are tracked with the same capacity and time to live as the shards'
+ * {@link IdempotencyCache caches}, so the writer thread holds a second copy of every remembered key.
+ */
+public class TipWriteAheadLog implements AutoCloseable {
+    static final int MAGIC = 0x42544950; //"BTIP"
+    static final short VERSION = 3;
+    static final int HEADER_SIZE = 8;
+    static final int FRAME_HEADER_SIZE = 12;
+    static final int RECORD_SIZE = 32;
+    static final int CHECKPOINT_KEY_SIZE = 20;
+
+    /**
+     * Told when a group has been made durable, on the log's writer thread, so keep it short.
+     */
+    public interface Commit {
+        void durable();
+
+        void failed(IOException ex);
+    }
+
+    /**
+     * Told about the log's contents when it is opened: first every idempotency key kept by the checkpoint, oldest
+     * first, then every record committed since, in log order.
+     */
+    public interface Replay {
+        void remembered(int from, long idempotencyKey, long committedAtMillis);
+
+        void replayed(long tipId, int from, int to, long amount, long idempotencyKey, long committedAtMillis);
+    }
+
+    private final TipSettings settings;
+    private final Path path;
+    private final long[] recoveredBalances;
+    private final long recoveredRecords;
+
+    //Owned by the writer thread once it has started.
+    private FileChannel channel;
+    private final long[] balances;
+    private final IdempotencyCache[] keys;
+    private long checkpointSize;
+    private volatile long checkpoints;
+
+    //Queued after the last entry by close().
+    private static final Entry CLOSE = new Entry(new TransferBatch[0], null);
+
+    private final LinkedBlockingQueue<Entry> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private boolean closed;
+    private IOException failure;
+
+    private ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+    private final CRC32 crc = new CRC32();
+
+    private TipWriteAheadLog(TipSettings settings, Path path, FileChannel channel, long[] balances, IdempotencyCache[] keys,
+                             long recoveredRecords, long checkpointSize) {
+        this.settings = settings;
+        this.path = path;
+        this.channel = channel;
+        this.recoveredBalances = balances.clone();
+        this.recoveredRecords = recoveredRecords;
+        this.balances = balances;
+        this.keys = keys;
+        this.checkpointSize = checkpointSize;
+
+        this.writer = new Thread(this::run, "tip-wal-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Opens the log at {@code path}, creating it if needed, and replays it.
+     */
+    public static TipWriteAheadLog open(Path path, TipSettings settings) throws IOException {
+        return open(path, settings, null);
+    }
+
+    /**
+     * Opens the log at {@code path}, creating it if needed, and replays it, telling {@code replay} about each record.
+     */
+    public static TipWriteAheadLog open(Path path, TipSettings settings, Replay replay) throws IOException {
+        //A checkpoint that was never renamed over the log is incomplete, and the log it was meant to replace is intact.
+        Files.deleteIfExists(checkpointPath(path));
+
+        final long[] balances = new long[settings.getAccounts()];
+        Arrays.fill(balances, settings.getInitialBalance());
+
+        final IdempotencyCache[] keys = new IdempotencyCache[settings.getShards()];
+
+        for (int shard = 0; shard < keys.length; ++shard) {
+            keys[shard] = new IdempotencyCache(settings.getIdempotencyKeysPerShard(), settings.getIdempotencyTtlMillis());
+        }
+
+        //A new log starts out as a checkpoint of the initial balances, put in place the same way as every later one.
+        if (!Files.exists(path) || Files.size(path) < HEADER_SIZE) {
+            replaceWithCheckpoint(path, balances, keys);
+        }
+
+        final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        try {
+            final long checkpointSize = readCheckpoint(channel, settings, balances, keys, replay);
+            final long records = replay(channel, checkpointSize, settings, balances, keys, replay);
+            return new TipWriteAheadLog(settings, path, channel, balances, keys, records, checkpointSize);
+        } catch (IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * @return the balance of every account as of the last durable record, indexed by account.
+     */
+    public long[] getRecoveredBalances() {
+        return recoveredBalances;
+    }
+
+    /**
+     * @return the number of records replayed on top of the checkpoint when the log was opened.
+     */
+    public long getRecoveredRecords() {
+        return recoveredRecords;
+    }
+
+    /**
+     * @return the number of checkpoints written since the log was opened.
+     */
+    public long getCheckpoints() {
+        return checkpoints;
+    }
+
+    /**
+     * Queues the tips in {@code batches}, skipping nulls, to be written in the next group. {@code commit} is told once
+     * they are durable, or that they never will be.
+     */
+    public void append(TransferBatch[] batches, Commit commit) {
+        synchronized (queue) {
+            if (!closed) {
+                queue.add(new Entry(batches, commit));
+                return;
+            }
+        }
+
+        commit.failed(new IOException("The write-ahead log is closed."));
+    }
+
+    /**
+     * Commits whatever is queued and closes the file.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (queue) {
+            if (closed)
+                return;
+
+            closed = true;
+            queue.add(CLOSE);
+        }
+
+        try {
+            writer.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void run() {
+        final List<Entry> group = new ArrayList<>();
+        boolean closing = false;
+
+        //Not interrupted to stop: an interrupt would close the file channel under a write.
+        while (!closing) {
+            try {
+                final Entry first = queue.take();
+
+                if (first == CLOSE)
+                    break;
+
+                group.add(first);
+                int records = first.records;
+
+                final long deadline = System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(settings.getGroupCommitMicros());
+
+                while (records < settings.getGroupCommitRecords()) {
+                    final Entry next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+
+                    if (next == null)
+                        break;
+
+                    if (next == CLOSE) {
+                        closing = true;
+                        break;
+                    }
+
+                    group.add(next);
+                    records += next.records;
+                }
+            } catch (InterruptedException ex) {
+                closing = true;
+            }
+
+            commit(group);
+            group.clear();
+
+            if (failure == null && settings.getCheckpointBytes() > 0) {
+                try {
+                    if (channel.position() - checkpointSize >= settings.getCheckpointBytes()) {
+                        checkpoint();
+                    }
+                } catch (IOException ex) {
+                    //The rename may have happened without the channel being reopened, so nothing more can be written.
+                    failure = ex;
+                }
+            }
+        }
+    }
+
+    private void commit(List<Entry> group) {
+        if (group.isEmpty())
+            return;
+
+        if (failure == null) {
+            try {
+                write(group);
+            } catch (IOException ex) {
+                //The file may now end in a torn frame, and anything written after it would be lost on replay.
+                failure = ex;
+            }
+        }
+
+        for (final Entry entry : group) {
+            if (failure == null) {
+                entry.commit.durable();
+            } else {
+                entry.commit.failed(failure);
+            }
+        }
+    }
+
+    private void write(List<Entry> group) throws IOException {
+        int records = 0;
+
+        for (final Entry entry : group) {
+            records += entry.records;
+        }
+
+        if (records == 0)
+            return;
+
+        final int frameSize = FRAME_HEADER_SIZE + records * RECORD_SIZE + 4;
+        final long committedAt = System.currentTimeMillis();
+
+        if (buffer.capacity() < frameSize) {
+            buffer = ByteBuffer.allocateDirect(Integer.highestOneBit(frameSize - 1) << 1);
+        }
+
+        buffer.clear();
+        buffer.putInt(records);
+        buffer.putLong(committedAt);
+
+        for (final Entry entry : group) {
+            for (final TransferBatch batch : entry.batches) {
+                if (batch == null)
+                    continue;
+
+                for (int i = 0; i < batch.size(); ++i) {
+                    buffer.putLong(batch.getTipId(i));
+                    buffer.putInt(batch.getFrom(i));
+                    buffer.putInt(batch.getTo(i));
+                    buffer.putLong(batch.getAmount(i));
+                    buffer.putLong(batch.getIdempotencyKey(i));
+                }
+            }
+        }
+
+        buffer.flip();
+        crc.reset();
+        crc.update(buffer.duplicate());
+
+        buffer.limit(frameSize);
+        buffer.putInt(frameSize - 4, (int) crc.getValue());
+
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+
+        channel.force(false);
+
+        //Only now that the group is durable does it belong in the next checkpoint.
+        for (final Entry entry : group) {
+            for (final TransferBatch batch : entry.batches) {
+                if (batch == null)
+                    continue;
+
+                for (int i = 0; i < batch.size(); ++i) {
+                    apply(settings, balances, keys, batch.getFrom(i), batch.getTo(i), batch.getAmount(i), batch.getIdempotencyKey(i), committedAt);
+                }
+            }
+        }
+    }
+
+    /**
+     * Replaces the log with a checkpoint of the current balances and keys.
+     */
+    private void checkpoint() throws IOException {
+        replaceWithCheckpoint(path, balances, keys);
+
+        channel.close();
+        channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        checkpointSize = channel.size();
+        channel.position(checkpointSize);
+        checkpoints++;
+    }
+
+    /**
+     * Writes a checkpoint of {@code balances} and {@code keys} next to {@code path}, forces it and renames it over
+     * {@code path}. Until the rename {@code path} is untouched, so a crash leaves either the old file or the whole
+     * checkpoint.
+     */
+    private static void replaceWithCheckpoint(Path path, long[] balances, IdempotencyCache[] keys) throws IOException {
+        final Path temporary = checkpointPath(path);
+
+        try (final FileChannel out = FileChannel.open(temporary,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeCheckpoint(out, balances, keys, System.currentTimeMillis());
+            out.force(true);
+        } catch (IOException ex) {
+            Files.deleteIfExists(temporary);
+            throw ex;
+        }
+
+        Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE);
+        forceDirectory(path);
+    }
+
+    static Path checkpointPath(Path path) {
+        return path.resolveSibling(path.getFileName() + ".checkpoint");
+    }
+
+    /**
+     * Makes a rename in the directory of {@code path} durable.
+     */
+    private static void forceDirectory(Path path) {
+        final Path directory = path.toAbsolutePath().getParent();
+
+        try (final FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException ex) {
+            //Some platforms can't open a directory. The rename is still atomic there, it may just not be durable yet.
+        }
+    }
+
+    private static void apply(TipSettings settings, long[] balances, IdempotencyCache[] keys,
+                              int from, int to, long amount, long idempotencyKey, long committedAt) {
+        balances[from] -= amount;
+        balances[to] += amount;
+
+        if (idempotencyKey != Tip.NO_IDEMPOTENCY_KEY) {
+            keys[settings.shardOf(from)].add(from, idempotencyKey, committedAt);
+        }
+    }
+
+    /**
+     * Writes the header and a checkpoint of {@code balances} and of the keys that haven't expired by {@code nowMillis}
+     * from the start of {@code channel}.
+     */
+    private static void writeCheckpoint(FileChannel channel, long[] balances, IdempotencyCache[] keys, long nowMillis) throws IOException {
+        final int[] keyCount = new int[1];
+
+        for (final IdempotencyCache cache : keys) {
+            cache.forEach(nowMillis, (account, key, addedAt) -> keyCount[0]++);
+        }
+
+        final ByteBuffer checkpoint = ByteBuffer.allocate(HEADER_SIZE + 4 + balances.length * 8 + 4 + keyCount[0] * CHECKPOINT_KEY_SIZE + 4);
+        checkpoint.putInt(MAGIC);
+        checkpoint.putShort(VERSION);
+        checkpoint.putShort((short) 0);
+
+        checkpoint.putInt(balances.length);
+
+        for (final long balance : balances) {
+            checkpoint.putLong(balance);
+        }
+
+        checkpoint.putInt(keyCount[0]);
+
+        for (final IdempotencyCache cache : keys) {
+            cache.forEach(nowMillis, (account, key, addedAt) -> {
+                checkpoint.putInt(account);
+                checkpoint.putLong(key);
+                checkpoint.putLong(addedAt);
+            });
+        }
+
+        final CRC32 crc = new CRC32();
+        crc.update(checkpoint.array(), HEADER_SIZE, checkpoint.position() - HEADER_SIZE);
+        checkpoint.putInt((int) crc.getValue());
+        checkpoint.flip();
+
+        long position = 0;
+
+        while (checkpoint.hasRemaining()) {
+            position += channel.write(checkpoint, position);
+        }
+    }
+
+    /**
+     * Checks the header and applies the checkpoint to {@code balances} and {@code keys}.
+     *
+     * @return where the frames start.
+     */
+    private static long readCheckpoint(FileChannel channel, TipSettings settings, long[] balances, IdempotencyCache[] keys, Replay replay) throws IOException {
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+
+        if (!readFully(channel, header, 0))
+            throw new IOException("The write-ahead log header is truncated.");
+
+        header.flip();
+
+        if (header.getInt() != MAGIC)
+            throw new IOException("Not a tip write-ahead log.");
+
+        final short version = header.getShort();
+
+        if (version != VERSION)
+            throw new IOException(String.format("Unsupported tip write-ahead log version %d.", version));
+
+        //The checkpoint was forced before it became the log, so unlike a frame it can't be torn.
+        final ByteBuffer accounts = ByteBuffer.allocate(4);
+
+        if (!readFully(channel, accounts, HEADER_SIZE))
+            throw new IOException("The write-ahead log checkpoint is truncated.");
+
+        if (accounts.getInt(0) != balances.length)
+            throw new IOException(String.format("The write-ahead log checkpoint has %d accounts, but the ledger has %d.",
+                    accounts.getInt(0), balances.length));
+
+        final ByteBuffer balanceBuffer = ByteBuffer.allocate(balances.length * 8 + 4);
+
+        if (!readFully(channel, balanceBuffer, HEADER_SIZE + 4))
+            throw new IOException("The write-ahead log checkpoint is truncated.");
+
+        final int keyCount = balanceBuffer.getInt(balances.length * 8);
+
+        if (keyCount < 0 || HEADER_SIZE + 8 + balances.length * 8L + (long) keyCount * CHECKPOINT_KEY_SIZE + 4 > channel.size())
+            throw new IOException("The write-ahead log checkpoint is truncated.");
+
+        final ByteBuffer keyBuffer = ByteBuffer.allocate(keyCount * CHECKPOINT_KEY_SIZE + 4);
+        readFully(channel, keyBuffer, HEADER_SIZE + 4 + balanceBuffer.capacity());
+
+        final CRC32 crc = new CRC32();
+        crc.update(accounts.array());
+        crc.update(balanceBuffer.array());
+        crc.update(keyBuffer.array(), 0, keyCount * CHECKPOINT_KEY_SIZE);
+
+        if ((int) crc.getValue() != keyBuffer.getInt(keyCount * CHECKPOINT_KEY_SIZE))
+            throw new IOException("The write-ahead log checkpoint is damaged.");
+
+        balanceBuffer.flip();
+
+        for (int i = 0; i < balances.length; ++i) {
+            balances[i] = balanceBuffer.getLong();
+        }
+
+        keyBuffer.flip();
+
+        for (int i = 0; i < keyCount; ++i) {
+            final int from = keyBuffer.getInt();
+            final long key = keyBuffer.getLong();
+            final long committedAt = keyBuffer.getLong();
+
+            if (!settings.isAccount(from))
+                throw new IOException(String.format("The write-ahead log checkpoint has a key for account %d, but the ledger only has %d.",
+                        from, balances.length));
+
+            keys[settings.shardOf(from)].add(from, key, committedAt);
+
+            if (replay != null) {
+                replay.remembered(from, key, committedAt);
+            }
+        }
+
+        return HEADER_SIZE + 4 + balanceBuffer.capacity() + keyBuffer.capacity();
+    }
+
+    /**
+     * Applies every complete frame from {@code position} on to {@code balances} and {@code keys} and truncates the
+     * file after the last one.
+     *
+     * @return the number of records replayed.
+     */
+    private static long replay(FileChannel channel, long position, TipSettings settings, long[] balances, IdempotencyCache[] keys, Replay replay) throws IOException {
+        final CRC32 crc = new CRC32();
+        final ByteBuffer frameHeader = ByteBuffer.allocate(FRAME_HEADER_SIZE);
+        ByteBuffer frame = ByteBuffer.allocate(64 * 1024);
+
+        long records = 0;
+
+        while (true) {
+            frameHeader.clear();
+
+            if (!readFully(channel, frameHeader, position))
+                break;
+
+            final int frameRecords = frameHeader.getInt(0);
+            final long committedAt = frameHeader.getLong(4);
+            final long bodySize = (long) frameRecords * RECORD_SIZE + 4;
+
+            if (frameRecords <= 0 || position + FRAME_HEADER_SIZE + bodySize > channel.size())
+                break;
+
+            if (frame.capacity() < bodySize) {
+                frame = ByteBuffer.allocate((int) bodySize);
+            }
+
+            frame.clear();
+            frame.limit((int) bodySize);
+            readFully(channel, frame, position + FRAME_HEADER_SIZE);
+            frame.flip();
+
+            crc.reset();
+            frameHeader.rewind();
+            crc.update(frameHeader);
+            crc.update((ByteBuffer) frame.duplicate().limit((int) bodySize - 4));
+
+            if ((int) crc.getValue() != frame.getInt((int) bodySize - 4))
+                break;
+
+            for (int i = 0; i < frameRecords; ++i) {
+                final long tipId = frame.getLong();
+                final int from = frame.getInt();
+                final int to = frame.getInt();
+                final long amount = frame.getLong();
+                final long idempotencyKey = frame.getLong();
+
+                if (from < 0 || from >= balances.length || to < 0 || to >= balances.length)
+                    throw new IOException(String.format("The write-ahead log has a tip for account %d or %d, but the ledger only has %d.",
+                            from, to, balances.length));
+
+                apply(settings, balances, keys, from, to, amount, idempotencyKey, committedAt);
+
+                if (replay != null) {
+                    replay.replayed(tipId, from, to, amount, idempotencyKey, committedAt);
+                }
+            }
+
+            position += FRAME_HEADER_SIZE + bodySize;
+            records += frameRecords;
+        }
+
+        //Whatever follows the last good frame was never acknowledged.
+        channel.truncate(position);
+        channel.force(true);
+        channel.position(position);
+
+        return records;
+    }
+
+    private static boolean readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            final int read = channel.read(buffer, position + buffer.position());
+
+            if (read < 0)
+                return false;
+        }
+
+        return true;
+    }
+
+    private static class Entry {
+        private final TransferBatch[] batches;
+        private final Commit commit;
+        private final int records;
+
+        private Entry(TransferBatch[] batches, Commit commit) {
+            this.batches = batches;
+            this.commit = commit;
+
+            int records = 0;
+            for (final TransferBatch batch : batches) {
+                records += batch != null ? batch.size() : 0;
+            }
+            this.records = records;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package io.bacta.tip;
+
+import akka.actor.ActorRef;
+
+/**
+ * Tips on their way through the ledger, stored as parallel arrays so that a whole batch is one message and a handful
+ * of allocations. A batch is filled by one actor and must not be touched again once it has been sent.
+ */
+public class TransferBatch {
+    private final long[] tipIds;
+    private final int[] from;
+    private final int[] to;
+    private final long[] amounts;
+    private final long[] idempotencyKeys;
+    private final ActorRef[] replyTo;
+    private int size;
+
+    public TransferBatch(int capacity) {
+        this.tipIds = new long[capacity];
+        this.from = new int[capacity];
+        this.to = new int[capacity];
+        this.amounts = new long[capacity];
+        this.idempotencyKeys = new long[capacity];
+        this.replyTo = new ActorRef[capacity];
+    }
+
+    public void add(Tip tip, ActorRef replyTo) {
+        add(tip.getTipId(), tip.getFrom(), tip.getTo(), tip.getAmount(), tip.getIdempotencyKey(), replyTo);
+    }
+
+    public void add(long tipId, int from, int to, long amount, long idempotencyKey, ActorRef replyTo) {
+        this.tipIds[size] = tipId;
+        this.from[size] = from;
+        this.to[size] = to;
+        this.amounts[size] = amount;
+        this.idempotencyKeys[size] = idempotencyKey;
+        this.replyTo[size] = replyTo;
+        size++;
+    }
+
+    /**
+     * Copies entry {@code index} of another batch into this one.
+     */
+    public void add(TransferBatch other, int index) {
+        add(other.tipIds[index],
+                other.from[index],
+                other.to[index],
+                other.amounts[index],
+                other.idempotencyKeys[index],
+                other.replyTo[index]);
+    }
+
+    public boolean isFull() {
+        return size == tipIds.length;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getTipId(int index) {
+        return tipIds[index];
+    }
+
+    public int getFrom(int index) {
+        return from[index];
+    }
+
+    public int getTo(int index) {
+        return to[index];
+    }
+
+    public long getAmount(int index) {
+        return amounts[index];
+    }
+
+    public long getIdempotencyKey(int index) {
+        return idempotencyKeys[index];
+    }
+
+    public ActorRef getReplyTo(int index) {
+        return replyTo[index];
+    }
+}
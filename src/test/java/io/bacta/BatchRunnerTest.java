@@ -0,0 +1,9 @@
+package io.bacta;
+
+import junit.framework.TestCase;
+
+public class BatchRunnerTest extends TestCase {
+    public void testReloadWithoutAttackFileIsAUsageError() {
+        assertEquals(BatchRunner.EXIT_USAGE, BatchRunner.run(new String[]{"--reload-attacks", "5"}));
+    }
+}
@@ -0,0 +1,68 @@
+package io.bacta.combat;
+
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.SplittableRandom;
+
+public class AttackRegistryTest extends TestCase {
+    public void testEveryDefaultAttackGetsChosen() {
+        final AttackRegistry registry = AttackTypes.DEFAULT;
+        final int[] counts = new int[registry.size()];
+        final SplittableRandom rng = new SplittableRandom(42);
+
+        for (int i = 0; i < 10000; ++i) {
+            counts[indexOf(registry, registry.choose(rng))]++;
+        }
+
+        for (int i = 0; i < counts.length; ++i) {
+            assertTrue(registry.get(i).getName(), counts[i] > 2000);
+        }
+    }
+
+    public void testChoicesFollowTheWeights() throws IOException {
+        final AttackRegistry registry = AttackRegistry.load(new StringReader(
+                "common  6  action=10  health=1  # most of the time\n" +
+                "\n" +
+                "rare    1  -          health=5,mind=2\n" +
+                "never   0  -          -\n" +
+                "other   3  action=5   focus=1\n"), "test");
+
+        final int[] counts = new int[registry.size()];
+        final SplittableRandom rng = new SplittableRandom(7);
+        final int samples = 100000;
+
+        for (int i = 0; i < samples; ++i) {
+            counts[indexOf(registry, registry.choose(rng))]++;
+        }
+
+        assertEquals(0.6, (double) counts[0] / samples, 0.01);
+        assertEquals(0.1, (double) counts[1] / samples, 0.01);
+        assertEquals(0, counts[2]);
+        assertEquals(0.3, (double) counts[3] / samples, 0.01);
+
+        final AttackTypes.Attack rare = registry.forName("rare");
+        assertEquals(5, rare.getDamage().getHealth());
+        assertEquals(2, rare.damage(MutableCreatureStats.MIND));
+        assertEquals(0, rare.cost(MutableCreatureStats.ACTION));
+    }
+
+    public void testBadLinesNameTheLine() throws IOException {
+        try {
+            AttackRegistry.load(new StringReader("fine 1 - -\nbroken 1 speed=3 -\n"), "test");
+            fail();
+        } catch (IllegalArgumentException ex) {
+            assertTrue(ex.getMessage(), ex.getMessage().startsWith("test line 2:"));
+        }
+    }
+
+    private static int indexOf(AttackRegistry registry, AttackTypes.Attack attack) {
+        for (int i = 0; i < registry.size(); ++i) {
+            if (registry.get(i) == attack)
+                return i;
+        }
+
+        throw new AssertionError(attack.getName());
+    }
+}
@@ -0,0 +1,42 @@
+package io.bacta.combat;
+
+import junit.framework.TestCase;
+
+public class CreatureStatsTest extends TestCase {
+    public void testDepletedAtZeroAndBelow() {
+        assertFalse(CreatureStats.depleted(Integer.MAX_VALUE) < 0);
+        assertFalse(CreatureStats.depleted(1) < 0);
+        assertTrue(CreatureStats.depleted(0) < 0);
+        assertTrue(CreatureStats.depleted(-1) < 0);
+        assertTrue(CreatureStats.depleted(Integer.MIN_VALUE) < 0);
+    }
+
+    public void testMinValueStatIncapacitates() {
+        final CreatureStats stats = new CreatureStats(100, 100, 100, 100, 100, 100, 100, 100, 100);
+        assertFalse(stats.isIncapacitated());
+        assertFalse(new MutableCreatureStats(stats).isIncapacitated());
+
+        stats.setFocus(Integer.MIN_VALUE);
+        assertTrue(stats.isIncapacitated());
+
+        final MutableCreatureStats mutable = new MutableCreatureStats(stats);
+        assertTrue(mutable.isIncapacitated());
+
+        mutable.set(MutableCreatureStats.FOCUS, 100);
+        assertFalse(mutable.isIncapacitated());
+        assertTrue(mutable.wouldIncapacitate(new CreatureStats(0, 0, 0, 0, 0, 0, 100, 0, 0)));
+        assertFalse(mutable.wouldIncapacitate(new CreatureStats(0, 0, 0, 0, 0, 0, 99, 0, 0)));
+    }
+
+    public void testScaledSubtractMatchesMultiplyThenSubtract() {
+        final CreatureStats ham = new CreatureStats(900, 800, 700, 600, 500, 400, 300, 200, 100);
+        final CreatureStats damage = new CreatureStats(1, 2, 3, 4, 5, 6, 7, 8, 9);
+
+        final MutableCreatureStats scaled = new MutableCreatureStats(ham).subtractScaledInPlace(damage, 11);
+        final MutableCreatureStats multiplied = new MutableCreatureStats(ham).subtractInPlace(damage.multiplyScalar(11));
+
+        assertEquals(multiplied.toString(), scaled.toString());
+        assertEquals(900 - 11, scaled.get(MutableCreatureStats.HEALTH));
+        assertEquals(100 - 99, scaled.get(MutableCreatureStats.WILLPOWER));
+    }
+}
@@ -0,0 +1,65 @@
+package io.bacta.combat;
+
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+public class LiveAttackRegistryTest extends TestCase {
+    private Path file;
+
+    @Override
+    protected void setUp() throws IOException {
+        file = Files.createTempFile("attacks", ".txt");
+    }
+
+    @Override
+    protected void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    public void testChangedFileIsSwappedIn() throws IOException {
+        write("jab 1 action=10 health=1\n", 1000);
+
+        final LiveAttackRegistry registry = LiveAttackRegistry.load(file);
+        final AttackRegistry first = registry.current();
+
+        assertFalse(registry.reloadIfChanged());
+        assertSame(first, registry.current());
+
+        write("jab 1 action=10 health=3\nkick 2 action=20 health=5\n", 2000);
+
+        assertTrue(registry.reloadIfChanged());
+        assertEquals(2, registry.current().size());
+        assertEquals(3, registry.current().forName("jab").getDamage().getHealth());
+
+        //Whoever already held the old attacks still sees them unchanged.
+        assertEquals(1, first.forName("jab").getDamage().getHealth());
+    }
+
+    public void testBrokenFileKeepsTheCurrentAttacks() throws IOException {
+        write("jab 1 action=10 health=1\n", 1000);
+
+        final LiveAttackRegistry registry = LiveAttackRegistry.load(file);
+        final AttackRegistry first = registry.current();
+
+        write("jab one action=10 health=1\n", 2000);
+
+        try {
+            registry.reloadIfChanged();
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+
+        assertSame(first, registry.current());
+        assertFalse(registry.reloadIfChanged());
+    }
+
+    private void write(String content, long modified) throws IOException {
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(file, FileTime.fromMillis(modified));
+    }
+}
@@ -0,0 +1,76 @@
+package io.bacta.name;
+
+import junit.framework.TestCase;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+public class NameGeneratorTest extends TestCase {
+    public void testPackedCorpusRoundTrips() throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        NameCorpus.pack(Arrays.asList("Ada", "Zsa Zsa", "Zoë"), out);
+
+        final NameCorpus corpus = NameCorpus.of(out.toByteArray());
+
+        assertEquals(3, corpus.size());
+        assertEquals("Zoë", corpus.get(2));
+        assertEquals("Ada", corpus.get(0));
+        assertSame(corpus.get(0), corpus.get(0));
+    }
+
+    public void testBundledCorpusIsPackedFromTheNameList() throws IOException {
+        final List<String> names = Files.readAllLines(Paths.get("src/main/names/names.txt"), StandardCharsets.UTF_8);
+        names.removeIf(name -> name.trim().isEmpty());
+
+        final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        NameCorpus.pack(names, expected);
+
+        final ByteArrayOutputStream bundled = new ByteArrayOutputStream();
+
+        try (final InputStream in = NameCorpus.class.getResourceAsStream("names.bin")) {
+            final byte[] buffer = new byte[8192];
+            int read;
+
+            while ((read = in.read(buffer)) > 0) {
+                bundled.write(buffer, 0, read);
+            }
+        }
+
+        assertTrue("names.bin is out of date; repack it from src/main/names/names.txt with NameCorpus.",
+                Arrays.equals(expected.toByteArray(), bundled.toByteArray()));
+    }
+
+    public void testDistinctNamesNeverRepeat() {
+        final SplittableRandom rng = new SplittableRandom(42);
+
+        for (final int count : new int[]{0, 1, 30, 4945, 12000}) {
+            final String[] names = NameGenerator.generateDistinct(rng, count);
+            final Set<String> unique = new HashSet<>(Arrays.asList(names));
+
+            assertEquals(count, names.length);
+            assertEquals(count, unique.size());
+        }
+    }
+
+    public void testDistinctNamesCoverTheCorpus() {
+        final SplittableRandom rng = new SplittableRandom(7);
+        final Set<String> seen = new HashSet<>();
+
+        //Two names per draw from 4945 names: after 20000 draws, missing one would be a one in e^8 event per name.
+        for (int i = 0; i < 20000; ++i) {
+            seen.addAll(Arrays.asList(NameGenerator.generateDistinct(rng, 2)));
+        }
+
+        assertTrue(seen.contains("Aaren"));
+        assertTrue(seen.contains("Zuzana"));
+    }
+}
@@ -0,0 +1,71 @@
+package io.bacta.name;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class SyllableNameGeneratorTest extends TestCase {
+    private final SyllableNameGenerator generator = NameGenerator.syllables();
+
+    public void testConsecutiveCountersGiveUniqueNames() {
+        final Set<String> names = new HashSet<>();
+        final int count = 1_000_000;
+
+        for (int counter = 0; counter < count; ++counter) {
+            final String name = generator.name(counter);
+
+            assertTrue(name, names.add(name));
+            assertEquals(name, counter, generator.counterOf(name));
+        }
+    }
+
+    public void testEveryLengthMapsBackToItsCounter() {
+        final SplittableRandom rng = new SplittableRandom(42);
+
+        assertEquals(Long.MAX_VALUE, generator.capacity());
+
+        for (int i = 0; i < 100000; ++i) {
+            //Spread over every name length rather than uniformly over the counters, which are mostly long names.
+            final long counter = rng.nextLong(1L << rng.nextInt(1, 63));
+            assertEquals(counter, generator.counterOf(generator.name(counter)));
+        }
+
+        final char[] into = new char[3 + generator.maxNameLength()];
+        final long last = generator.capacity() - 1;
+        final int end = generator.name(last, into, 3);
+
+        assertEquals(generator.name(last), new String(into, 3, end - 3));
+
+        assertEquals(-1, generator.counterOf("Zsa Zsa"));
+        assertEquals(-1, generator.counterOf(generator.name(12345).toUpperCase()));
+    }
+
+    public void testThreadsNeverShareANameSource() throws InterruptedException {
+        final UniqueNameSource source = new UniqueNameSource(generator, 0, 1000);
+        final Set<String> names = ConcurrentHashMap.newKeySet();
+        final List<Thread> threads = new ArrayList<>();
+        final int perThread = 50000;
+
+        for (int t = 0; t < 4; ++t) {
+            final Thread thread = new Thread(() -> {
+                for (int i = 0; i < perThread; ++i) {
+                    names.add(source.next());
+                }
+            });
+
+            threads.add(thread);
+            thread.start();
+        }
+
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(4 * perThread, names.size());
+    }
+}
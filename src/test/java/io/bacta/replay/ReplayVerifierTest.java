@@ -0,0 +1,122 @@
+package io.bacta.replay;
+
+import io.bacta.SimulationSettings;
+import io.bacta.combat.LiveAttackRegistry;
+import io.bacta.sim.AttackResolution;
+import io.bacta.sim.BattleEngine;
+import io.bacta.sim.BattleSettings;
+import io.bacta.sim.ParticipantNames;
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A recorded run has to replay identically, or the golden files can't catch behaviour changes.
+ */
+public class ReplayVerifierTest extends TestCase {
+
+    public void testActorEngineReplaysIdentically() throws Exception {
+        assertReplaysIdentically(BattleEngine.ACTOR);
+    }
+
+    public void testDataOrientedEngineReplaysIdentically() throws Exception {
+        assertReplaysIdentically(BattleEngine.DATA_ORIENTED);
+    }
+
+    public void testBattleSettingsAreRecorded() throws Exception {
+        final Path golden = File.createTempFile("golden", ".txt").toPath();
+        final Path attackFile = File.createTempFile("attacks", ".txt").toPath();
+
+        try {
+            Files.write(attackFile, Arrays.asList(
+                    "jab   3  action=10  health=30",
+                    "hook  1  action=40  health=90,mind=20"), StandardCharsets.UTF_8);
+
+            final SimulationSettings settings = SimulationSettings.builder()
+                    .masterSeed(7L)
+                    .totalBattleSimulations(10)
+                    .totalTipSimulations(0)
+                    .battleSettings(BattleSettings.builder()
+                            .maxRounds(50)
+                            .attackResolution(AttackResolution.ACTOR_PER_ATTACK)
+                            .attacksInFlight(3)
+                            .attacks(LiveAttackRegistry.load(attackFile))
+                            .participantNames(ParticipantNames.SYLLABLES)
+                            .build())
+                    .build();
+
+            ReplayVerifier.record(settings, golden);
+
+            final BattleSettings restored = GoldenResults.readSettings(golden).getBattleSettings();
+            assertEquals(50, restored.getMaxRounds());
+            assertEquals(AttackResolution.ACTOR_PER_ATTACK, restored.getAttackResolution());
+            assertEquals(3, restored.getAttacksInFlight());
+            assertEquals(attackFile, restored.getAttacks().getPath());
+            assertEquals(ParticipantNames.SYLLABLES, restored.getParticipantNames());
+
+            final List<String> mismatches = ReplayVerifier.verify(golden);
+            assertTrue(mismatches.toString(), mismatches.isEmpty());
+
+            //Rebalancing the attacks after the recording has to be caught before anything is replayed.
+            Files.write(attackFile, Collections.singletonList("jab  3  action=10  health=31"), StandardCharsets.UTF_8);
+
+            final List<String> changed = ReplayVerifier.verify(golden);
+            assertEquals(1, changed.size());
+            assertTrue(changed.get(0), changed.get(0).startsWith("setting attackDigest:"));
+        } finally {
+            golden.toFile().delete();
+            attackFile.toFile().delete();
+        }
+    }
+
+    public void testMissingSettingIsRejected() throws Exception {
+        final Path golden = File.createTempFile("golden", ".txt").toPath();
+
+        try {
+            Files.write(golden, Arrays.asList(
+                    "# seed=1",
+                    "# battles=1",
+                    "# minParticipants=10",
+                    "# maxParticipants=30",
+                    "# engine=ACTOR",
+                    "# concurrency=64",
+                    "1\t5\t12\t60\tDECIDED\tSomebody"), StandardCharsets.UTF_8);
+
+            GoldenResults.readSettings(golden);
+            fail();
+        } catch (IOException ex) {
+            assertTrue(ex.getMessage(), ex.getMessage().contains("doesn't record the maxRounds setting"));
+        } finally {
+            golden.toFile().delete();
+        }
+    }
+
+    private void assertReplaysIdentically(BattleEngine engine) throws Exception {
+        final Path golden = File.createTempFile("golden", ".txt").toPath();
+
+        try {
+            final SimulationSettings settings = SimulationSettings.builder()
+                    .masterSeed(20180214L)
+                    .totalBattleSimulations(25)
+                    .totalTipSimulations(0)
+                    .battleEngine(engine)
+                    .build();
+
+            ReplayVerifier.record(settings, golden);
+
+            assertEquals(25, GoldenResults.readLines(golden).size());
+
+            final List<String> mismatches = ReplayVerifier.verify(golden);
+            assertTrue(mismatches.toString(), mismatches.isEmpty());
+        } finally {
+            golden.toFile().delete();
+        }
+    }
+}
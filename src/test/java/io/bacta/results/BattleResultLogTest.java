@@ -0,0 +1,71 @@
+package io.bacta.results;
+
+import io.bacta.sim.BattleOutcome;
+import io.bacta.sim.BattleSimulationResult;
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
+public class BattleResultLogTest extends TestCase {
+    private Path path;
+
+    @Override
+    protected void setUp() throws Exception {
+        path = File.createTempFile("battle-results", ".bin").toPath();
+    }
+
+    @Override
+    protected void tearDown() {
+        path.toFile().delete();
+    }
+
+    public void testResultsReadBackById() throws Exception {
+        final BattleResultLogWriter writer = new BattleResultLogWriter(path);
+
+        writer.accept(new BattleSimulationResult(2, 300, 30, 100000, BattleOutcome.DECIDED, Collections.singletonList("Zsa Zsa")));
+        writer.accept(new BattleSimulationResult(1, 7, 10, 70, 5, BattleOutcome.STALEMATE,
+                Arrays.asList("Ada", "Zsa Zsa")));
+        writer.accept(new BattleSimulationResult(3, 1000, 12, 0, BattleOutcome.ROUND_LIMIT, Collections.emptyList()));
+        writer.close();
+
+        final BattleResultLogReader reader = new BattleResultLogReader(path);
+        assertEquals(3, reader.size());
+
+        final BattleSimulationResult first = reader.read(1);
+        assertEquals(7, first.getRounds());
+        assertEquals(10, first.getTotalParticipants());
+        assertEquals(70, first.getTotalAttacks());
+        assertEquals(5, first.getElidedAttacks());
+        assertEquals(BattleOutcome.STALEMATE, first.getOutcome());
+        assertEquals(Arrays.asList("Ada", "Zsa Zsa"), first.getWinningParticipants());
+
+        final BattleSimulationResult second = reader.read(2);
+        assertEquals(100000, second.getTotalAttacks());
+        assertEquals(0, second.getElidedAttacks());
+        assertEquals(Collections.singletonList("Zsa Zsa"), second.getWinningParticipants());
+
+        assertTrue(reader.read(3).getWinningParticipants().isEmpty());
+        assertNull(reader.read(4));
+    }
+
+    public void testTruncatedEntryIsIgnored() throws Exception {
+        final BattleResultLogWriter writer = new BattleResultLogWriter(path);
+
+        writer.accept(new BattleSimulationResult(1, 7, 10, 70, BattleOutcome.DECIDED, Collections.singletonList("Ada")));
+        writer.accept(new BattleSimulationResult(2, 8, 11, 80, BattleOutcome.DECIDED, Collections.singletonList("Abbe")));
+        writer.close();
+
+        try (final RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.setLength(file.length() - 2);
+        }
+
+        final BattleResultLogReader reader = new BattleResultLogReader(path);
+        assertEquals(1, reader.size());
+        assertEquals("Ada", reader.read(1).getWinningParticipants().get(0));
+        assertNull(reader.read(2));
+    }
+}
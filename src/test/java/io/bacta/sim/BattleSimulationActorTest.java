@@ -0,0 +1,64 @@
+package io.bacta.sim;
+
+import akka.actor.AbstractActor;
+import akka.actor.ActorSystem;
+import akka.actor.Props;
+import junit.framework.TestCase;
+import scala.concurrent.Await;
+import scala.concurrent.duration.Duration;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+public class BattleSimulationActorTest extends TestCase {
+    private ActorSystem actorSystem;
+
+    @Override
+    protected void setUp() {
+        actorSystem = ActorSystem.create("battle-simulation-test");
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        Await.ready(actorSystem.terminate(), Duration.create(10, TimeUnit.SECONDS));
+    }
+
+    public void testLastParticipantStandingEndsTheRoundEarly() throws Exception {
+        //One attack at a time leaves most of the final round's tickets queued when the last but one goes down.
+        final BattleSettings settings = BattleSettings.builder()
+                .attacksInFlight(1)
+                .roundTimeout(Duration.create(30, TimeUnit.SECONDS))
+                .build();
+
+        final CompletableFuture<BattleSimulationResult> completion = new CompletableFuture<>();
+        actorSystem.actorOf(Props.create(Battle.class, () -> new Battle(8, 42, settings, completion)));
+
+        //A round that waited out its timeout would not make it in time.
+        final BattleSimulationResult result = completion.get(settings.getRoundTimeout().toMillis() / 2, TimeUnit.MILLISECONDS);
+
+        assertEquals(BattleOutcome.DECIDED, result.getOutcome());
+        assertEquals(1, result.getWinningParticipants().size());
+        assertTrue(result.getElidedAttacks() > 0);
+    }
+
+    /**
+     * Parent of the battle under test, which reports its result to its parent.
+     */
+    public static class Battle extends AbstractActor {
+        private final CompletableFuture<BattleSimulationResult> completion;
+
+        public Battle(int participants, long seed, BattleSettings settings, CompletableFuture<BattleSimulationResult> completion) {
+            this.completion = completion;
+
+            context().actorOf(BattleSimulationActor.props(1, participants, seed, settings))
+                    .tell(new BattleSimulationActor.StartBattle(), self());
+        }
+
+        @Override
+        public Receive createReceive() {
+            return receiveBuilder()
+                    .match(BattleSimulationResult.class, completion::complete)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package io.bacta.sim;
+
+import junit.framework.TestCase;
+
+public class RoundAttacksTest extends TestCase {
+    public void testRoundEndsOnceEveryAttackIsIn() {
+        final RoundAttacks attacks = new RoundAttacks();
+        attacks.startRound(3);
+
+        final int first = attacks.launch();
+        attacks.launch();
+        assertEquals(2, attacks.getInFlight());
+
+        assertTrue(attacks.isCurrent(first));
+        assertFalse(attacks.resolved());
+        assertFalse(attacks.skipped());
+        assertTrue(attacks.resolved());
+        assertEquals(0, attacks.getInFlight());
+    }
+
+    public void testLateResolutionsAfterATimeoutAreIgnored() {
+        final RoundAttacks attacks = new RoundAttacks();
+        attacks.startRound(4);
+
+        final int[] late = {attacks.launch(), attacks.launch(), attacks.launch()};
+
+        //The round times out with all three still out.
+        attacks.close();
+        assertEquals(0, attacks.getOutstanding());
+        assertEquals(0, attacks.getInFlight());
+
+        //Two of them resolve before the next round starts, the last one after.
+        assertFalse(attacks.isCurrent(late[0]));
+        assertFalse(attacks.isCurrent(late[1]));
+
+        attacks.startRound(2);
+        assertFalse(attacks.isCurrent(late[2]));
+
+        final int current = attacks.launch();
+        assertTrue(attacks.isCurrent(current));
+        assertEquals(1, attacks.getInFlight());
+
+        attacks.launch();
+        assertEquals(2, attacks.getInFlight());
+        assertFalse(attacks.resolved());
+        assertTrue(attacks.resolved());
+        assertEquals(0, attacks.getInFlight());
+    }
+}
@@ -0,0 +1,74 @@
+package io.bacta.tip;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+public class IdempotencyCacheTest extends TestCase {
+    public void testKeysBelongToTheirAccount() {
+        final IdempotencyCache cache = new IdempotencyCache(4, 1000);
+
+        assertTrue(cache.add(1, 42, 0));
+        assertFalse(cache.add(1, 42, 0));
+        assertTrue(cache.add(2, 42, 0));
+        assertTrue(cache.contains(1, 42, 0));
+        assertFalse(cache.contains(3, 42, 0));
+    }
+
+    public void testOldestKeysAreEvictedBySizeAndAge() {
+        final IdempotencyCache cache = new IdempotencyCache(3, 1000);
+
+        cache.add(1, 1, 0);
+        cache.add(1, 2, 100);
+        cache.add(1, 3, 200);
+        cache.add(1, 4, 300);
+
+        assertEquals(3, cache.size());
+        assertFalse(cache.contains(1, 1, 300));
+        assertTrue(cache.contains(1, 2, 300));
+
+        assertFalse(cache.contains(1, 2, 1100));
+        assertTrue(cache.contains(1, 3, 1100));
+        assertEquals(2, cache.size());
+
+        assertFalse(cache.contains(1, 4, 5000));
+        assertEquals(0, cache.size());
+    }
+
+    /**
+     * Lots of colliding keys, checked against a plain set, so that deletions from the middle of probe runs get
+     * exercised.
+     */
+    public void testMatchesAReferenceUnderChurn() {
+        final int capacity = 64;
+        final IdempotencyCache cache = new IdempotencyCache(capacity, Long.MAX_VALUE);
+        final ArrayDeque<Long> order = new ArrayDeque<>();
+        final Set<Long> reference = new HashSet<>();
+        final SplittableRandom rng = new SplittableRandom(7);
+
+        for (int i = 0; i < 100000; ++i) {
+            final long key = rng.nextInt(200) + 1;
+            final boolean added = cache.add(0, key, i);
+
+            assertEquals(!reference.contains(key), added);
+
+            if (added) {
+                if (order.size() == capacity) {
+                    reference.remove(order.removeFirst());
+                }
+
+                order.addLast(key);
+                reference.add(key);
+            }
+
+            assertEquals(reference.size(), cache.size());
+        }
+
+        for (long key = 1; key <= 200; ++key) {
+            assertEquals(reference.contains(key), cache.contains(0, key, 0));
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package io.bacta.tip;
+
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+public class LatencyHistogramTest extends TestCase {
+    public void testBucketEdges() {
+        //Exact below 64, then 32 buckets per power of two: 64 and 65 share [64, 65], 128 starts [128, 131].
+        assertEquals(63, boundOf(63));
+        assertEquals(65, boundOf(64));
+        assertEquals(65, boundOf(65));
+        assertEquals(127, boundOf(127));
+        assertEquals(131, boundOf(128));
+    }
+
+    public void testPercentilesAgainstSortedValues() {
+        final SplittableRandom rng = new SplittableRandom(42);
+        final LatencyHistogram histogram = new LatencyHistogram();
+        final long[] values = new long[100000];
+
+        for (int i = 0; i < values.length; ++i) {
+            //Spread over every magnitude from nanoseconds to seconds.
+            values[i] = rng.nextLong(1L << rng.nextInt(1, 31));
+            histogram.record(values[i]);
+        }
+
+        Arrays.sort(values);
+
+        assertEquals(values.length, histogram.getCount());
+        assertEquals(values[values.length - 1], histogram.getMax());
+
+        for (final double percentile : new double[]{0, 1, 25, 50, 90, 99, 99.9, 99.99, 100}) {
+            final long expected = values[(int) Math.max(0, Math.ceil(percentile / 100 * values.length) - 1)];
+            final long reported = histogram.getPercentile(percentile);
+
+            //The upper bound of the value's bucket, which is at most 1/32 above it.
+            assertTrue(percentile + ": " + reported + " < " + expected, reported >= expected);
+            assertTrue(percentile + ": " + reported + " > " + expected, reported <= expected + expected / 32 + 1);
+        }
+    }
+
+    private static long boundOf(long value) {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(value);
+        //Keeps the maximum from capping the bound.
+        histogram.record(1000000);
+
+        return histogram.getPercentile(50);
+    }
+}
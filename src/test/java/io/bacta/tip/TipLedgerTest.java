@@ -0,0 +1,125 @@
+package io.bacta.tip;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.actor.Inbox;
+import io.bacta.sim.TipSimulationActor;
+import junit.framework.TestCase;
+import scala.concurrent.Await;
+import scala.concurrent.duration.Duration;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+public class TipLedgerTest extends TestCase {
+    private static final TipSettings SETTINGS = TipSettings.builder()
+            .accounts(10)
+            .initialBalance(100)
+            .shards(2)
+            .build();
+
+    private ActorSystem actorSystem;
+
+    @Override
+    protected void setUp() {
+        actorSystem = ActorSystem.create("tip-ledger-test");
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        Await.ready(actorSystem.terminate(), Duration.create(10, TimeUnit.SECONDS));
+    }
+
+    public void testEveryTipIsAnsweredAndNoCreditIsLost() throws Exception {
+        //Balances small enough next to the amounts that plenty of tips bounce.
+        final TipSettings settings = TipSettings.builder()
+                .accounts(1000)
+                .initialBalance(50)
+                .shards(4)
+                .maxBatchSize(64)
+                .build();
+        final TipLoadSettings load = TipLoadSettings.builder()
+                .totalTips(50000)
+                .window(512)
+                .maxAmount(100)
+                .seed(7)
+                .build();
+
+        final CompletableFuture<TipLoadReport> completion = new CompletableFuture<>();
+        final ActorRef ledger = actorSystem.actorOf(TipSimulationActor.props(settings));
+        actorSystem.actorOf(TipLoadGenerator.props(ledger, settings, load, completion))
+                .tell(new TipLoadGenerator.StartLoad(), ActorRef.noSender());
+
+        final TipLoadReport report = completion.get(60, TimeUnit.SECONDS);
+
+        assertTrue(report.isBalanced());
+        assertEquals(load.getTotalTips(), report.getTips());
+        assertEquals(load.getTotalTips(), report.getLatencies().getCount());
+        assertTrue(report.getStatusCount(TipStatus.ACCEPTED) > 0);
+        assertTrue(report.getStatusCount(TipStatus.INSUFFICIENT_FUNDS) > 0);
+        assertEquals(load.getTotalTips(),
+                report.getStatusCount(TipStatus.ACCEPTED) + report.getStatusCount(TipStatus.INSUFFICIENT_FUNDS));
+    }
+
+    public void testRetriedTipIsAppliedOnce() throws Exception {
+        final ActorRef ledger = actorSystem.actorOf(TipSimulationActor.props(SETTINGS));
+        final Inbox inbox = Inbox.create(actorSystem);
+
+        final Map<Long, TipStatus> statuses = send(inbox, ledger, new Tip(1, 0, 1, 30, 77), new Tip(2, 0, 1, 30, 77));
+        assertEquals(TipStatus.ACCEPTED, statuses.get(1L));
+        assertEquals(TipStatus.DUPLICATE, statuses.get(2L));
+
+        //Exactly the 70 left after a single debit can still be sent, and not a unit more.
+        assertEquals(TipStatus.ACCEPTED, send(inbox, ledger, new Tip(3, 0, 2, 70)).get(3L));
+        assertEquals(TipStatus.INSUFFICIENT_FUNDS, send(inbox, ledger, new Tip(4, 0, 2, 1)).get(4L));
+    }
+
+    public void testRetriedTipIsLoggedOnce() throws Exception {
+        final Path path = File.createTempFile("tips", ".wal").toPath();
+
+        try {
+            final TipSettings settings = SETTINGS.toBuilder()
+                    .writeAheadLog(path)
+                    .build();
+            final ActorRef ledger = actorSystem.actorOf(TipSimulationActor.props(settings));
+            final Inbox inbox = Inbox.create(actorSystem);
+
+            final Map<Long, TipStatus> statuses = send(inbox, ledger, new Tip(1, 0, 1, 30, 77), new Tip(2, 0, 1, 30, 77));
+            assertEquals(TipStatus.ACCEPTED, statuses.get(1L));
+            assertEquals(TipStatus.DUPLICATE, statuses.get(2L));
+
+            //Closes the log.
+            Await.ready(actorSystem.terminate(), Duration.create(10, TimeUnit.SECONDS));
+
+            try (final TipWriteAheadLog log = TipWriteAheadLog.open(path, settings)) {
+                assertEquals(1, log.getRecoveredRecords());
+                assertEquals(70, log.getRecoveredBalances()[0]);
+                assertEquals(130, log.getRecoveredBalances()[1]);
+            }
+        } finally {
+            path.toFile().delete();
+        }
+    }
+
+    private static Map<Long, TipStatus> send(Inbox inbox, ActorRef ledger, Tip... tips) throws Exception {
+        final Map<Long, TipStatus> statuses = new HashMap<>();
+
+        for (final Tip tip : tips) {
+            inbox.send(ledger, tip);
+        }
+
+        while (statuses.size() < tips.length) {
+            final TipResults results = (TipResults) inbox.receive(Duration.create(10, TimeUnit.SECONDS));
+
+            for (int i = 0; i < results.size(); ++i) {
+                statuses.put(results.getTipId(i), results.getStatus(i));
+            }
+        }
+
+        return statuses;
+    }
+}
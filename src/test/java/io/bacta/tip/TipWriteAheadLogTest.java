@@ -0,0 +1,281 @@
+package io.bacta.tip;
+
+import akka.actor.AbstractActor;
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.actor.Props;
+import io.bacta.sim.TipSimulationActor;
+import junit.framework.TestCase;
+import scala.concurrent.Await;
+import scala.concurrent.duration.Duration;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class TipWriteAheadLogTest extends TestCase {
+    private static final TipSettings SETTINGS = TipSettings.builder()
+            .accounts(100)
+            .initialBalance(1000)
+            .shards(2)
+            .build();
+
+    private Path path;
+    private Path crashed;
+
+    @Override
+    protected void setUp() throws Exception {
+        path = File.createTempFile("tips", ".wal").toPath();
+        crashed = File.createTempFile("tips-crashed", ".wal").toPath();
+    }
+
+    @Override
+    protected void tearDown() {
+        path.toFile().delete();
+        crashed.toFile().delete();
+    }
+
+    public void testTornFrameIsDiscarded() throws Exception {
+        try (final TipWriteAheadLog log = TipWriteAheadLog.open(path, SETTINGS)) {
+            final TransferBatch batch = new TransferBatch(2);
+            batch.add(1, 3, 4, 250, Tip.NO_IDEMPOTENCY_KEY, null);
+            batch.add(2, 4, 5, 100, Tip.NO_IDEMPOTENCY_KEY, null);
+
+            append(log, batch);
+        }
+
+        final long durableSize = Files.size(path);
+
+        //A crash in the middle of the next group: the count and half a record made it to disk.
+        try (final RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.seek(durableSize);
+            file.writeInt(3);
+            file.writeLong(3);
+            file.writeInt(5);
+        }
+
+        try (final TipWriteAheadLog log = TipWriteAheadLog.open(path, SETTINGS)) {
+            assertEquals(2, log.getRecoveredRecords());
+            assertEquals(750, log.getRecoveredBalances()[3]);
+            assertEquals(1150, log.getRecoveredBalances()[4]);
+            assertEquals(1100, log.getRecoveredBalances()[5]);
+            assertEquals(durableSize, Files.size(path));
+
+            final TransferBatch batch = new TransferBatch(1);
+            batch.add(3, 5, 3, 1100, Tip.NO_IDEMPOTENCY_KEY, null);
+            append(log, batch);
+        }
+
+        try (final TipWriteAheadLog log = TipWriteAheadLog.open(path, SETTINGS)) {
+            assertEquals(3, log.getRecoveredRecords());
+            assertEquals(1850, log.getRecoveredBalances()[3]);
+            assertEquals(0, log.getRecoveredBalances()[5]);
+        }
+    }
+
+    public void testCrashWhileCreatingTheLogLeavesNoLog() throws Exception {
+        //The process died while writing the first checkpoint: it never got renamed into place.
+        Files.delete(path);
+
+        try (final RandomAccessFile file = new RandomAccessFile(TipWriteAheadLog.checkpointPath(path).toFile(), "rw")) {
+            file.writeInt(TipWriteAheadLog.MAGIC);
+            file.writeShort(TipWriteAheadLog.VERSION);
+            file.writeShort(0);
+            file.writeInt(SETTINGS.getAccounts());
+            file.writeLong(SETTINGS.getInitialBalance());
+        }
+
+        try (final TipWriteAheadLog log = TipWriteAheadLog.open(path, SETTINGS)) {
+            assertEquals(0, log.getRecoveredRecords());
+            assertEquals(SETTINGS.getInitialBalance(), log.getRecoveredBalances()[0]);
+
+            final TransferBatch batch = new TransferBatch(1);
+            batch.add(1, 0, 1, 10, Tip.NO_IDEMPOTENCY_KEY, null);
+            append(log, batch);
+        }
+
+        assertFalse(Files.exists(TipWriteAheadLog.checkpointPath(path)));
+
+        try (final TipWriteAheadLog log = TipWriteAheadLog.open(path, SETTINGS)) {
+            assertEquals(1, log.getRecoveredRecords());
+            assertEquals(SETTINGS.getInitialBalance() - 10, log.getRecoveredBalances()[0]);
+        }
+    }
+
+    public void testCrashRecoveryReplaysEveryAcknowledgedTip() throws Exception {
+        final TipSettings settings = SETTINGS.toBuilder()
+                .writeAheadLog(path)
+                .groupCommitRecords(64)
+                .build();
+        final TipLoadSettings load = TipLoadSettings.builder()
+                .totalTips(20000)
+                .window(256)
+                .seed(42)
+                .build();
+
+        final ActorSystem actorSystem = ActorSystem.create("tip-wal-test");
+        final AtomicLong acceptedAtCrash = new AtomicLong(-1);
+        final TipLoadReport report;
+
+        try {
+            final CompletableFuture<TipLoadReport> completion = new CompletableFuture<>();
+            final ActorRef ledger = actorSystem.actorOf(TipSimulationActor.props(settings));
+            final ActorRef crashing = actorSystem.actorOf(Props.create(CrashHalfway.class,
+                    () -> new CrashHalfway(ledger, load.getTotalTips() / 2, path, crashed, acceptedAtCrash)));
+            actorSystem.actorOf(TipLoadGenerator.props(crashing, settings, load, completion))
+                    .tell(new TipLoadGenerator.StartLoad(), ActorRef.noSender());
+
+            report = completion.get(60, TimeUnit.SECONDS);
+        } finally {
+            Await.ready(actorSystem.terminate(), Duration.create(10, TimeUnit.SECONDS));
+        }
+
+        assertTrue(report.isBalanced());
+        assertTrue(acceptedAtCrash.get() > 0);
+
+        try (final TipWriteAheadLog log = TipWriteAheadLog.open(crashed, settings)) {
+            //Every tip acknowledged by then is durable; ones still in flight may or may not have made it.
+            assertTrue(log.getRecoveredRecords() >= acceptedAtCrash.get());
+            assertTrue(log.getRecoveredRecords() <= report.getStatusCount(TipStatus.ACCEPTED));
+
+            long total = 0;
+            for (final long balance : log.getRecoveredBalances()) {
+                assertTrue(balance >= 0);
+                total += balance;
+            }
+
+            assertEquals(report.getExpectedTotalBalance(), total);
+        }
+    }
+
+    public void testCheckpointBoundsTheLog() throws Exception {
+        final TipSettings settings = SETTINGS.toBuilder()
+                .checkpointBytes(4096)
+                .build();
+        final long[] expected = new long[settings.getAccounts()];
+        Arrays.fill(expected, settings.getInitialBalance());
+
+        try (final TipWriteAheadLog log = TipWriteAheadLog.open(path, settings)) {
+            for (int tip = 0; tip < 1000; ++tip) {
+                final int from = tip % settings.getAccounts();
+                final int to = (tip * 7 + 1) % settings.getAccounts();
+
+                final TransferBatch batch = new TransferBatch(1);
+                batch.add(tip, from, to, 3, 1000 + tip, null);
+                append(log, batch);
+
+                expected[from] -= 3;
+                expected[to] += 3;
+            }
+
+            assertTrue(log.getCheckpoints() > 0);
+        }
+
+        //The checkpoint holds 100 balances and up to 1000 keys, the frames since at most 4KB.
+        assertTrue(Files.size(path) < 8 + 4 + 800 + 4 + 1000 * 20 + 4 + 4096 + 44);
+        assertFalse(Files.exists(TipWriteAheadLog.checkpointPath(path)));
+
+        final Set<Long> keys = new HashSet<>();
+
+        try (final TipWriteAheadLog log = TipWriteAheadLog.open(path, settings, new TipWriteAheadLog.Replay() {
+            @Override
+            public void remembered(int from, long idempotencyKey, long committedAtMillis) {
+                keys.add(idempotencyKey);
+            }
+
+            @Override
+            public void replayed(long tipId, int from, int to, long amount, long idempotencyKey, long committedAtMillis) {
+                keys.add(idempotencyKey);
+            }
+        })) {
+            assertTrue(log.getRecoveredRecords() < 1000);
+            assertTrue(Arrays.equals(expected, log.getRecoveredBalances()));
+        }
+
+        //Every key is still within its time to live, and each shard remembers up to 65536, so none may be lost.
+        assertEquals(1000, keys.size());
+    }
+
+    private static void append(TipWriteAheadLog log, TransferBatch batch) throws Exception {
+        final CountDownLatch durable = new CountDownLatch(1);
+
+        log.append(new TransferBatch[]{batch, null}, new TipWriteAheadLog.Commit() {
+            @Override
+            public void durable() {
+                durable.countDown();
+            }
+
+            @Override
+            public void failed(IOException ex) {
+                fail(ex.getMessage());
+            }
+        });
+
+        assertTrue(durable.await(10, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Sits between the load generator and the ledger. Once half the tips are answered it copies the log as it is on
+     * disk, with the rest of the window still in flight, as if the process died right then.
+     */
+    public static class CrashHalfway extends AbstractActor {
+        private final ActorRef ledger;
+        private final long crashAfter;
+        private final Path path;
+        private final Path crashed;
+        private final AtomicLong acceptedAtCrash;
+
+        private ActorRef generator;
+        private long answered;
+        private long accepted;
+
+        public CrashHalfway(ActorRef ledger, long crashAfter, Path path, Path crashed, AtomicLong acceptedAtCrash) {
+            this.ledger = ledger;
+            this.crashAfter = crashAfter;
+            this.path = path;
+            this.crashed = crashed;
+            this.acceptedAtCrash = acceptedAtCrash;
+        }
+
+        @Override
+        public Receive createReceive() {
+            return receiveBuilder()
+                    .match(Tip.class, this::tip)
+                    .match(TipResults.class, this::tipResults)
+                    .match(TipSimulationActor.AuditLedger.class, msg -> ledger.forward(msg, context()))
+                    .build();
+        }
+
+        private void tip(Tip tip) {
+            generator = sender();
+            ledger.tell(tip, self());
+        }
+
+        private void tipResults(TipResults results) throws IOException {
+            for (int i = 0; i < results.size(); ++i) {
+                if (results.getStatus(i) == TipStatus.ACCEPTED) {
+                    accepted++;
+                }
+            }
+
+            answered += results.size();
+
+            if (answered >= crashAfter && acceptedAtCrash.get() < 0) {
+                Files.copy(path, crashed, StandardCopyOption.REPLACE_EXISTING);
+                acceptedAtCrash.set(accepted);
+            }
+
+            generator.tell(results, self());
+        }
+    }
+}